@@ -0,0 +1,22 @@
+package net.bbmsoft.iocfx;
+
+import javafx.fxml.Initializable;
+
+/**
+ * Marker interface for {@link Initializable} services whose
+ * {@link Initializable#initialize(java.net.URL, java.util.ResourceBundle)
+ * initialize} method does not need to run on the JavaFX Application Thread.
+ * IoCFX will initialize these on a background thread, in parallel with other
+ * {@code BackgroundInitializable} services, which can considerably shorten
+ * application startup.
+ * <p>
+ * Implementations must not touch any part of a live scene graph from their
+ * {@code initialize} method. Use the {@link Platform} service for anything that
+ * needs to run on the JavaFX Application Thread.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface BackgroundInitializable extends Initializable {
+
+}
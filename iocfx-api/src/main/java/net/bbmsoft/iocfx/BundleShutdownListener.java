@@ -0,0 +1,69 @@
+package net.bbmsoft.iocfx;
+
+import java.util.List;
+
+/**
+ * Service interface for components that want to follow the progress of the
+ * bundles being stopped because a stage with the
+ * {@link StageService.ExitPolicy#STOP_BUNDLE_ON_STAGE_EXIT
+ * STOP_BUNDLE_ON_STAGE_EXIT} or
+ * {@link StageService.ExitPolicy#SHUTDOWN_ON_STAGE_EXIT SHUTDOWN_ON_STAGE_EXIT}
+ * exit policy has been closed, e.g. to show a progress indicator.
+ * <p>
+ * Bundles are stopped on background threads, independent bundles in parallel.
+ * Listeners are called from these threads, so any UI updates need to be passed
+ * to the JavaFX Application Thread. Bundles are identified by their symbolic
+ * name.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface BundleShutdownListener {
+
+	/**
+	 * The outcome of stopping a single bundle.
+	 */
+	public enum Result {
+
+		/**
+		 * The bundle has been stopped.
+		 */
+		STOPPED,
+
+		/**
+		 * Stopping the bundle threw an exception.
+		 */
+		FAILED,
+
+		/**
+		 * The bundle did not stop within the configured timeout. It may still stop
+		 * later, but bundles depending on it are no longer waited for.
+		 */
+		TIMED_OUT;
+	}
+
+	/**
+	 * Called before the first bundle is stopped.
+	 *
+	 * @param bundles
+	 *            the symbolic names of all bundles that are going to be stopped
+	 */
+	public default void shutdownStarted(List<String> bundles) {
+
+	}
+
+	/**
+	 * Called whenever stopping one of the bundles has finished.
+	 *
+	 * @param bundle
+	 *            the symbolic name of the bundle
+	 * @param result
+	 *            whether the bundle has been stopped
+	 * @param completed
+	 *            the number of bundles that have been processed so far, including
+	 *            this one
+	 * @param total
+	 *            the total number of bundles being stopped
+	 */
+	public void bundleStopped(String bundle, Result result, int completed, int total);
+}
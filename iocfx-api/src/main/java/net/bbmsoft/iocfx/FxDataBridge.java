@@ -0,0 +1,169 @@
+package net.bbmsoft.iocfx;
+
+import java.util.Collection;
+
+import javafx.beans.value.WritableValue;
+import javafx.collections.ObservableList;
+
+/**
+ * Feeds data produced at a high rate on background threads into JavaFX lists
+ * and properties. Instead of posting one task per update to the JavaFX
+ * Application Thread, the sinks provided by this service buffer updates and
+ * apply everything that has accumulated in the meantime at most once per
+ * pulse:
+ * <ul>
+ * <li>a {@link ListSink} applies all buffered additions with a single
+ * {@code addAll} call, or a single {@code setAll} call if the list has been
+ * replaced in the meantime</li>
+ * <li>a {@link ValueSink} only ever applies the latest value</li>
+ * </ul>
+ * Sinks may be written to from any number of threads. They must only be used
+ * for lists and values that are not modified by other means.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface FxDataBridge {
+
+	/**
+	 * Determines what happens when a {@link ListSink} has buffered as many
+	 * elements as its capacity allows.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Discard the oldest buffered writes to make room for new ones.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Reject new writes until the JavaFX Application Thread has caught up.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * Block the writing thread until the JavaFX Application Thread has caught
+		 * up. Writes from the JavaFX Application Thread itself are never blocked.
+		 */
+		BLOCK;
+	}
+
+	/**
+	 * A thread safe write-only view of an {@link ObservableList}.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 * @param <T>
+	 *            the element type
+	 */
+	public interface ListSink<T> {
+
+		/**
+		 * Appends an element to the list.
+		 *
+		 * @param element
+		 *            the element
+		 * @return {@code false} if the element has been rejected due to the
+		 *         overflow policy
+		 */
+		public boolean add(T element);
+
+		/**
+		 * Appends elements to the list.
+		 *
+		 * @param elements
+		 *            the elements; the collection is copied
+		 * @return {@code false} if the elements have been rejected due to the
+		 *         overflow policy
+		 */
+		public boolean addAll(Collection<? extends T> elements);
+
+		/**
+		 * Replaces the content of the list. Any writes that are still buffered are
+		 * discarded.
+		 *
+		 * @param elements
+		 *            the new content; the collection is copied
+		 * @return {@code false} if the elements have been rejected due to the
+		 *         overflow policy
+		 */
+		public boolean setAll(Collection<? extends T> elements);
+
+		/**
+		 * @return the number of elements that are buffered and have not been
+		 *         applied to the list yet
+		 */
+		public int getPending();
+
+		/**
+		 * @return the number of elements that have been discarded or rejected due
+		 *         to the overflow policy
+		 */
+		public long getDropped();
+	}
+
+	/**
+	 * A thread safe write-only view of a {@link WritableValue}. Values that are
+	 * overwritten before the JavaFX Application Thread got to them are never
+	 * applied.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 * @param <T>
+	 *            the value type
+	 */
+	public interface ValueSink<T> {
+
+		/**
+		 * Sets the value.
+		 *
+		 * @param value
+		 *            the value, may be {@code null}
+		 */
+		public void set(T value);
+
+		/**
+		 * @return the number of values that have been replaced by a later one
+		 *         before they could be applied
+		 */
+		public long getSkipped();
+	}
+
+	/**
+	 * Creates a sink for a list with the default batch size, capacity and
+	 * overflow policy as configured by the framework properties.
+	 *
+	 * @param list
+	 *            the list
+	 * @return the sink
+	 */
+	public <T> ListSink<T> listSink(ObservableList<T> list);
+
+	/**
+	 * Creates a sink for a list.
+	 *
+	 * @param list
+	 *            the list
+	 * @param maxBatchSize
+	 *            the maximum number of elements added to the list per pulse; the
+	 *            rest is added during the following pulses. Content passed to
+	 *            {@link ListSink#setAll(Collection) setAll} is always applied as a
+	 *            whole.
+	 * @param capacity
+	 *            the maximum number of elements that may be buffered before the
+	 *            overflow policy kicks in
+	 * @param policy
+	 *            what to do when the buffer is full, must not be {@code null}
+	 * @return the sink
+	 */
+	public <T> ListSink<T> listSink(ObservableList<T> list, int maxBatchSize, int capacity, OverflowPolicy policy);
+
+	/**
+	 * Creates a sink for a value.
+	 *
+	 * @param value
+	 *            the value, e.g. a property
+	 * @return the sink
+	 */
+	public <T> ValueSink<T> valueSink(WritableValue<T> value);
+}
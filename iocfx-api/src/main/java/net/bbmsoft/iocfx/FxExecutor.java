@@ -0,0 +1,94 @@
+package net.bbmsoft.iocfx;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An {@link Executor} that runs tasks on the JavaFX Application Thread on
+ * behalf of the bundle that obtained it. Every bundle gets its own instance.
+ * <p>
+ * Unlike tasks passed to {@link Platform#runLater(Runnable)}, tasks submitted
+ * through this service are dropped when their bundle stops before the JavaFX
+ * Application Thread got to them, so they neither run against a stopped bundle
+ * nor keep its classes reachable. Once the bundle has stopped, new tasks are
+ * rejected.
+ * <p>
+ * All durations are in nanoseconds.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface FxExecutor extends Executor {
+
+	/**
+	 * Statistics about the tasks a single bundle has submitted through its
+	 * executor.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface BundleStats {
+
+		/**
+		 * @return the ID of the bundle
+		 */
+		public long getBundleId();
+
+		/**
+		 * @return the symbolic name of the bundle
+		 */
+		public String getSymbolicName();
+
+		/**
+		 * @return the total number of tasks submitted
+		 */
+		public long getSubmitted();
+
+		/**
+		 * @return the number of tasks that have run, whether they completed normally
+		 *         or not
+		 */
+		public long getCompleted();
+
+		/**
+		 * @return the number of tasks that have been dropped because the bundle
+		 *         stopped before they could run
+		 */
+		public long getDropped();
+
+		/**
+		 * @return the number of tasks that are waiting to be run
+		 */
+		public long getPending();
+
+		/**
+		 * @return the total time the bundle's tasks have occupied the JavaFX
+		 *         Application Thread
+		 */
+		public long getExecutionTime();
+	}
+
+	/**
+	 * Runs a task on the JavaFX Application Thread. The task is always queued,
+	 * even if this is called on the JavaFX Application Thread.
+	 *
+	 * @param command
+	 *            the task
+	 * @throws RejectedExecutionException
+	 *             if the bundle that obtained this executor has stopped
+	 */
+	@Override
+	public void execute(Runnable command);
+
+	/**
+	 * @return the statistics of the bundle that obtained this executor
+	 */
+	public BundleStats getStats();
+
+	/**
+	 * @return the statistics of all bundles that have obtained an executor so
+	 *         far, including stopped but not uninstalled ones
+	 */
+	public List<BundleStats> getStatsByBundle();
+}
@@ -0,0 +1,44 @@
+package net.bbmsoft.iocfx;
+
+/**
+ * Service interface for components that want to be notified when the JavaFX
+ * Application Thread stops responding. IoCFX regularly posts a small task to
+ * the JavaFX Application Thread and notifies all registered listeners if it is
+ * not run within the configured deadline.
+ * <p>
+ * Listeners are called from a background thread.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface FxThreadStallListener {
+
+	/**
+	 * Called when the JavaFX Application Thread has not responded within the
+	 * configured deadline.
+	 * 
+	 * @param duration
+	 *            the time in milliseconds the JavaFX Application Thread has been
+	 *            unresponsive so far
+	 * @param stackTrace
+	 *            the stack trace of the JavaFX Application Thread at the time the
+	 *            stall was detected
+	 * @param activeService
+	 *            the {@link Fxml} or {@link javafx.fxml.Initializable} service IoCFX
+	 *            was calling on the JavaFX Application Thread at that moment or
+	 *            {@code null} if it wasn't calling any
+	 */
+	public void stallDetected(long duration, StackTraceElement[] stackTrace, Object activeService);
+
+	/**
+	 * Called when the JavaFX Application Thread responds again after a stall has
+	 * been reported.
+	 * 
+	 * @param duration
+	 *            the total time in milliseconds the JavaFX Application Thread has
+	 *            been unresponsive
+	 */
+	public default void stallEnded(long duration) {
+
+	}
+}
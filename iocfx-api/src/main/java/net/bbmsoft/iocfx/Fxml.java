@@ -28,6 +28,10 @@ import net.bbmsoft.iocfx.StageService.ExitPolicy;
  * provided {@link ResourceBundle} will be used while loading the FXML file.
  * method.
  * <p>
+ * If the {@code Fxml} instance implements the {@link Lazy} interface, the FXML
+ * file will not be loaded until it is requested through the corresponding
+ * {@link FxmlHandle} service.
+ * <p>
  * If a component needs to have direct control over the {@link FXMLLoader}
  * instance, it might not be a good idea to implement this interface. Instead
  * declare a dependency on an {@link FXMLLoader} prototype service like this:
@@ -129,6 +133,29 @@ public interface Fxml {
 		}
 	}
 
+	/**
+	 * Marker interface for components whose FXML file should not be loaded before
+	 * it is actually needed. Instead of loading it right away, IoCFX will register
+	 * an {@link FxmlHandle} service for every {@code Lazy} component, which loads
+	 * the FXML file the first time {@link FxmlHandle#load()} is called. Apart from
+	 * the time of loading, all other {@code Fxml} interfaces implemented by the
+	 * component are honored as usual.
+	 * <p>
+	 * The handle of a specific component can be referenced using its class name
+	 * in a target filter:
+	 * 
+	 * <pre>
+	 * &#64;Reference(target = "(fxml.class=com.example.SettingsView)")
+	 * private FxmlHandle&lt;Region&gt; settingsView;
+	 * </pre>
+	 * 
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface Lazy extends Fxml {
+
+	}
+
 	/**
 	 * If an {@code Fxml} instance implements this interface, any {@link IOException
 	 * IOExceptions} that happen while loading the FXML file will be caught and
@@ -0,0 +1,124 @@
+package net.bbmsoft.iocfx;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+
+/**
+ * Builds the object graph described by an FXML file without parsing it at
+ * runtime. Implementations are generated at build time by the
+ * {@code iocfx-compiler} annotation processor, one for each FXML file that
+ * lies next to an {@link Fxml} implementation and has the same name as it.
+ * <p>
+ * When loading an {@code Fxml} component, IoCFX looks for a builder named
+ * according to {@link #getBuilderClassName(String)} in the component's bundle
+ * and uses it instead of an {@code FXMLLoader} if it exists.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface FxmlBuilder {
+
+	/**
+	 * Suffix appended to the name of an FXML file to get the simple name of its
+	 * builder class.
+	 */
+	public static final String CLASS_NAME_SUFFIX = "_FxmlBuilder";
+
+	/**
+	 * Provides everything a builder needs from the outside world.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface Context {
+
+		public URL getLocation();
+
+		public ResourceBundle getResources();
+
+		public Object getRoot();
+
+		public Object getController();
+
+		public void setController(Object controller);
+
+		/**
+		 * @return the map all objects with an {@code fx:id} are put into
+		 */
+		public Map<String, Object> getNamespace();
+
+		/**
+		 * Resolves a location prefixed with {@code @} in the FXML file.
+		 *
+		 * @param relativePath
+		 *            the location without the {@code @} prefix
+		 * @return the location resolved against the location of the FXML file
+		 */
+		public String resolve(String relativePath);
+
+		/**
+		 * Resolves a resource key prefixed with {@code %} in the FXML file.
+		 *
+		 * @param key
+		 *            the key without the {@code %} prefix
+		 * @return the value from the resource bundle
+		 */
+		public String getResource(String key);
+
+		/**
+		 * Resolves an event handler prefixed with {@code #} in the FXML file.
+		 *
+		 * @param methodName
+		 *            the name of the controller method without the {@code #}
+		 *            prefix
+		 * @return an event handler invoking the controller method
+		 */
+		public <T extends Event> EventHandler<T> getEventHandler(String methodName);
+	}
+
+	/**
+	 * Creates the object graph.
+	 *
+	 * @param context
+	 *            the context to build the graph in
+	 * @return the root object
+	 * @throws IOException
+	 *             if the graph can't be built, e.g. because the FXML file uses
+	 *             {@code fx:root} and no root has been provided
+	 */
+	public Object build(Context context) throws IOException;
+
+	/**
+	 * Derives the fully qualified name of the builder class generated for an FXML
+	 * file.
+	 *
+	 * @param resourcePath
+	 *            path of the FXML file within its bundle, e.g.
+	 *            {@code com/example/MainView.fxml}
+	 * @return the class name, e.g. {@code com.example.MainView_FxmlBuilder}
+	 */
+	public static String getBuilderClassName(String resourcePath) {
+
+		String path = resourcePath.startsWith("/") ? resourcePath.substring(1) : resourcePath;
+		int slash = path.lastIndexOf('/');
+		String packageName = slash < 0 ? "" : path.substring(0, slash).replace('/', '.');
+		String fileName = path.substring(slash + 1);
+		int dot = fileName.lastIndexOf('.');
+		String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+
+		StringBuilder simpleName = new StringBuilder(baseName.length() + CLASS_NAME_SUFFIX.length());
+		for (int i = 0; i < baseName.length(); i++) {
+			char c = baseName.charAt(i);
+			boolean valid = i == 0 ? Character.isJavaIdentifierStart(c) : Character.isJavaIdentifierPart(c);
+			simpleName.append(valid ? c : '_');
+		}
+		simpleName.append(CLASS_NAME_SUFFIX);
+
+		return packageName.isEmpty() ? simpleName.toString() : packageName + "." + simpleName;
+	}
+}
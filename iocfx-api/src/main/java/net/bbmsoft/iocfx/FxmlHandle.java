@@ -0,0 +1,47 @@
+package net.bbmsoft.iocfx;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service interface through which the FXML file of an {@link Fxml.Lazy}
+ * component is loaded on demand. IoCFX registers one {@code FxmlHandle}
+ * service per {@code Fxml.Lazy} component with the service properties
+ * {@value #FXML_CLASS} and {@value #FXML_SERVICE_ID} identifying the component.
+ * 
+ * @author Michael Bachmann
+ *
+ * @param <T>
+ *            type of the FXML's root object
+ */
+public interface FxmlHandle<T> {
+
+	/**
+	 * Service property containing the fully qualified class name of the
+	 * {@link Fxml.Lazy} component the handle belongs to.
+	 */
+	public static final String FXML_CLASS = "fxml.class";
+
+	/**
+	 * Service property containing the {@code service.id} of the
+	 * {@link Fxml.Lazy} component the handle belongs to.
+	 */
+	public static final String FXML_SERVICE_ID = "fxml.service.id";
+
+	/**
+	 * Loads the FXML file, unless this has already been done or is in progress.
+	 * Calling this method repeatedly will not load the file again.
+	 * <p>
+	 * This method may be called from any thread.
+	 * </p>
+	 * 
+	 * @return a future that completes with the FXML's root object once it has been
+	 *         loaded and handed to the component or completes exceptionally if
+	 *         loading failed
+	 */
+	public CompletableFuture<T> load();
+
+	/**
+	 * @return {@code true} if the FXML file has been loaded successfully
+	 */
+	public boolean isLoaded();
+}
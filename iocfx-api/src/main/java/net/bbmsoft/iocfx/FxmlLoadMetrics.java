@@ -0,0 +1,26 @@
+package net.bbmsoft.iocfx;
+
+/**
+ * Provides statistics about how IoCFX schedules the loading of {@link Fxml}
+ * components. Each component has at most one load in flight: a load that has
+ * not started yet is dropped if its component is unbound, and reused if the
+ * component is bound again or its {@link FxmlHandle} is requested in the
+ * meantime.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface FxmlLoadMetrics {
+
+	/**
+	 * @return the number of loads that have been dropped before they started,
+	 *         because their component was unbound or IoCFX shut down
+	 */
+	public long getCancelledLoads();
+
+	/**
+	 * @return the number of times a component was bound or requested again while
+	 *         a load for it was still pending and that load was reused
+	 */
+	public long getDeduplicatedLoads();
+}
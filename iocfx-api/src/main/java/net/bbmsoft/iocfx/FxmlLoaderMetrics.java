@@ -0,0 +1,49 @@
+package net.bbmsoft.iocfx;
+
+import net.bbmsoft.iocfx.PlatformMetrics.Histogram;
+
+/**
+ * Provides statistics about the pool of {@code FXMLLoader} instances IoCFX
+ * uses to load {@link Fxml} components. Loaders are reset and reused between
+ * loads instead of being created from scratch for every FXML file.
+ * <p>
+ * All durations are in nanoseconds.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface FxmlLoaderMetrics {
+
+	/**
+	 * @return the maximum number of idle loaders kept in the pool
+	 */
+	public int getPoolSize();
+
+	/**
+	 * @return the number of loaders currently waiting in the pool
+	 */
+	public int getIdleLoaders();
+
+	/**
+	 * @return the total number of loaders handed out
+	 */
+	public long getAcquisitions();
+
+	/**
+	 * @return the number of loaders handed out that were taken from the pool
+	 *         rather than created
+	 */
+	public long getHits();
+
+	/**
+	 * @return the ratio of {@link #getHits() hits} to
+	 *         {@link #getAcquisitions() acquisitions}, between 0 and 1
+	 */
+	public double getHitRate();
+
+	/**
+	 * @return the distribution of the time it took to reset a loader before
+	 *         returning it to the pool
+	 */
+	public Histogram getResetTimeHistogram();
+}
@@ -0,0 +1,45 @@
+package net.bbmsoft.iocfx;
+
+/**
+ * Provides statistics about the cache IoCFX keeps the contents of FXML
+ * documents in, so that repeated loads of the same {@link Fxml} component do
+ * not have to read its document from its bundle again.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface FxmlTemplateCacheMetrics {
+
+	/**
+	 * @return the maximum number of documents kept in the cache, {@code 0} if the
+	 *         cache is disabled
+	 */
+	public int getMaxSize();
+
+	/**
+	 * @return the number of documents currently in the cache
+	 */
+	public int getSize();
+
+	/**
+	 * @return the number of loads that found their document in the cache
+	 */
+	public long getHits();
+
+	/**
+	 * @return the number of loads that had to read their document from its
+	 *         bundle
+	 */
+	public long getMisses();
+
+	/**
+	 * @return the ratio of {@link #getHits() hits} to all loads, between 0 and 1
+	 */
+	public double getHitRate();
+
+	/**
+	 * @return the number of documents that have been dropped from the cache,
+	 *         either to make room for others or because their bundle changed
+	 */
+	public long getEvictions();
+}
@@ -1,5 +1,12 @@
 package net.bbmsoft.iocfx;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
 import javafx.application.Application;
 import javafx.application.ConditionalFeature;
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -126,10 +133,149 @@ public interface Platform {
 	 *             if the FX runtime has not been initialized
 	 */
 	public void runLater(Runnable runnable);
+
+	/**
+	 * Like {@link #runLater(Runnable)}, but if a Runnable submitted with an equal
+	 * key is still pending, it will be replaced by the specified Runnable instead
+	 * of running both. Use this for updates where only the latest value matters,
+	 * e.g. progress or status displays that get updated at a high rate.
+	 * <p>
+	 * This method may be called from any thread.
+	 * </p>
+	 * <p>
+	 * The default implementation does not coalesce anything and simply calls
+	 * {@link #runLater(Runnable)}.
+	 * </p>
+	 *
+	 * @param key
+	 *            identifies Runnables that may replace each other
+	 * @param runnable
+	 *            the Runnable whose run method will be executed on the JavaFX
+	 *            Application Thread, unless it gets replaced before that
+	 */
+	public default void runLaterCoalesced(Object key, Runnable runnable) {
+		this.runLater(runnable);
+	}
 	
 	public void runOnFxApplicationThread(Runnable runnable);
-	
+
+	/**
+	 * Runs the specified Runnable on the JavaFX Application Thread and blocks the
+	 * calling thread until it has completed. If called from the JavaFX Application
+	 * Thread, the Runnable is run immediately.
+	 * <p>
+	 * Any {@link RuntimeException} or {@link Error} thrown by the Runnable is
+	 * rethrown in the calling thread.
+	 * </p>
+	 * <p>
+	 * Prefer {@link #runOnFxThreadAsync(Runnable)} where possible, since it does not
+	 * block the calling thread.
+	 * </p>
+	 * 
+	 * @param runnable
+	 *            the Runnable to run on the JavaFX Application Thread
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting
+	 */
 	public void runAndWait(Runnable runnable) throws InterruptedException;
+
+	/**
+	 * Like {@link #runAndWait(Runnable)}, but waits at most for the specified
+	 * duration. If the Runnable has not been started by the time the timeout
+	 * expires, it will not be run at all.
+	 * 
+	 * @param runnable
+	 *            the Runnable to run on the JavaFX Application Thread
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting
+	 * @throws TimeoutException
+	 *             if the Runnable did not complete in time
+	 */
+	public default void runAndWait(Runnable runnable, Duration timeout)
+			throws InterruptedException, TimeoutException {
+
+		if (this.isFxApplicationThread()) {
+			runnable.run();
+			return;
+		}
+
+		CompletableFuture<Void> future = this.runOnFxThreadAsync(runnable);
+
+		try {
+			future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (TimeoutException e) {
+			future.cancel(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs the specified Runnable on the JavaFX Application Thread without blocking
+	 * the calling thread. If called from the JavaFX Application Thread, the
+	 * Runnable is run immediately.
+	 * <p>
+	 * This method may be called from any thread.
+	 * </p>
+	 * 
+	 * @param runnable
+	 *            the Runnable to run on the JavaFX Application Thread
+	 * @return a future that completes once the Runnable has run or completes
+	 *         exceptionally with whatever the Runnable threw. Cancelling it
+	 *         prevents the Runnable from running if it hasn't been started yet.
+	 */
+	public default CompletableFuture<Void> runOnFxThreadAsync(Runnable runnable) {
+		return this.supplyOnFxThread(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Computes a value on the JavaFX Application Thread without blocking the
+	 * calling thread. If called from the JavaFX Application Thread, the Supplier is
+	 * invoked immediately.
+	 * <p>
+	 * This method may be called from any thread.
+	 * </p>
+	 * 
+	 * @param supplier
+	 *            the Supplier to invoke on the JavaFX Application Thread
+	 * @return a future that completes with the supplied value or completes
+	 *         exceptionally with whatever the Supplier threw. Cancelling it
+	 *         prevents the Supplier from being invoked if it hasn't been started
+	 *         yet.
+	 */
+	public default <T> CompletableFuture<T> supplyOnFxThread(Supplier<T> supplier) {
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+
+		this.runOnFxApplicationThread(() -> {
+
+			if (future.isDone()) {
+				// cancelled before we got to it
+				return;
+			}
+
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
 	
 	public void assertFxApplicationThread();
 
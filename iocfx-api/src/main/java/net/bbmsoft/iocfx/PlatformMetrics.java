@@ -0,0 +1,118 @@
+package net.bbmsoft.iocfx;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides statistics about the work that is run on the JavaFX Application
+ * Thread through the {@link Platform} service. Use this to find out which
+ * bundles keep the JavaFX Application Thread busy or delay the UI.
+ * <p>
+ * All durations are in nanoseconds.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public interface PlatformMetrics {
+
+	/**
+	 * A distribution of recorded durations.
+	 * 
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface Histogram {
+
+		public long getCount();
+
+		public long getMin();
+
+		public long getMax();
+
+		public double getMean();
+
+		/**
+		 * Gets the value below which the specified percentage of all recorded values
+		 * fall. The result is accurate to within a few percent of the actual value.
+		 * 
+		 * @param percentile
+		 *            the percentile, between 0 and 100
+		 * @return the value at the specified percentile
+		 */
+		public long getValueAtPercentile(double percentile);
+	}
+
+	/**
+	 * Describes a single task that has been run on the JavaFX Application Thread.
+	 * 
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface TaskRecord {
+
+		/**
+		 * @return the ID of the bundle that submitted the task or -1 if unknown
+		 */
+		public long getBundleId();
+
+		/**
+		 * @return the symbolic name of the bundle that submitted the task or
+		 *         {@code null} if unknown
+		 */
+		public String getBundleSymbolicName();
+
+		/**
+		 * @return the time between the submission of the task and the moment it
+		 *         started running
+		 */
+		public long getLatency();
+
+		/**
+		 * @return the time the task occupied the JavaFX Application Thread
+		 */
+		public long getExecutionTime();
+
+		/**
+		 * @return the time the task finished, in milliseconds since the epoch
+		 */
+		public long getTimestamp();
+	}
+
+	/**
+	 * @return the number of tasks that have been submitted but not started yet
+	 */
+	public int getQueueDepth();
+
+	/**
+	 * @return the distribution of times tasks waited between being submitted and
+	 *         being started
+	 */
+	public Histogram getLatencyHistogram();
+
+	/**
+	 * @return the distribution of times tasks occupied the JavaFX Application
+	 *         Thread
+	 */
+	public Histogram getExecutionTimeHistogram();
+
+	/**
+	 * @return the execution time above which a task is considered long-running
+	 */
+	public long getLongRunningThreshold();
+
+	/**
+	 * @return the number of long-running tasks since the platform was started
+	 */
+	public long getLongRunningTaskCount();
+
+	/**
+	 * @return the number of long-running tasks since the platform was started,
+	 *         grouped by the symbolic name of the bundle that submitted them
+	 */
+	public Map<String, Long> getLongRunningTaskCountsByBundle();
+
+	/**
+	 * @return the most recent long-running tasks, oldest first
+	 */
+	public List<TaskRecord> getRecentLongRunningTasks();
+}
@@ -0,0 +1,70 @@
+package net.bbmsoft.iocfx;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reports how much of the scene graph IoCFX has handed out to each bundle is
+ * still alive. IoCFX keeps track of the stages it provided through the
+ * {@link StageService} and the objects it loaded for {@link Fxml} components,
+ * without keeping them from being garbage collected. Whatever is still tracked
+ * when its bundle stops is released by IoCFX.
+ * <p>
+ * A bundle whose numbers keep growing across update cycles is likely leaking
+ * parts of its UI.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface SceneGraphMemory {
+
+	/**
+	 * Scene graph usage of a single bundle.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface BundleUsage {
+
+		/**
+		 * @return the ID of the bundle
+		 */
+		public long getBundleId();
+
+		/**
+		 * @return the symbolic name of the bundle
+		 */
+		public String getSymbolicName();
+
+		/**
+		 * @return the number of stages provided to the bundle that are still alive
+		 */
+		public int getStages();
+
+		/**
+		 * @return the number of objects loaded from FXML for the bundle that are
+		 *         still alive
+		 */
+		public int getRoots();
+
+		/**
+		 * @return the number of nodes reachable from the bundle's stages and roots
+		 */
+		public int getNodes();
+
+		/**
+		 * @return a rough estimate of the heap occupied by these nodes in bytes
+		 */
+		public long getEstimatedBytes();
+	}
+
+	/**
+	 * Counts the nodes retained by every bundle. Counting happens on the JavaFX
+	 * Application Thread since the scene graph must not be traversed from other
+	 * threads.
+	 *
+	 * @return a future completed with the usage of all bundles that still have
+	 *         live stages or roots
+	 */
+	public CompletableFuture<List<BundleUsage>> getUsage();
+}
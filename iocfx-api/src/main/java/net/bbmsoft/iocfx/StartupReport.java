@@ -0,0 +1,105 @@
+package net.bbmsoft.iocfx;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes where the time went while IoCFX brought up the JavaFX Platform.
+ * The report covers the chain from the activation of IoCFX over the launch of
+ * the JavaFX toolkit and the registration of the {@link Platform} service up to
+ * the first stage being shown, as well as the time it took to load each
+ * {@link Fxml} component.
+ * <p>
+ * All points in time are in nanoseconds relative to the activation of IoCFX,
+ * all durations are in nanoseconds. The report is updated as startup
+ * progresses, so it may be incomplete when it is retrieved early.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public interface StartupReport {
+
+	/**
+	 * IoCFX has been activated and is about to launch the JavaFX toolkit. This is
+	 * very close to the origin of all other points in time.
+	 */
+	public static final String LAUNCH_REQUESTED = "launchRequested";
+
+	/**
+	 * The JavaFX toolkit is up and running. If the toolkit has been bootstrapped
+	 * early, this may be negative.
+	 */
+	public static final String TOOLKIT_STARTED = "toolkitStarted";
+
+	/**
+	 * The {@link Platform} service has been registered.
+	 */
+	public static final String PLATFORM_REGISTERED = "platformRegistered";
+
+	/**
+	 * The first stage handed out by the {@link StageService} has been shown.
+	 */
+	public static final String FIRST_STAGE_SHOWN = "firstStageShown";
+
+	/**
+	 * Describes the loading of a single FXML file.
+	 *
+	 * @author Michael Bachmann
+	 *
+	 */
+	public interface FxmlLoad {
+
+		/**
+		 * @return the fully qualified class name of the {@link Fxml} component
+		 */
+		public String getComponent();
+
+		/**
+		 * @return the location of the FXML file or {@code null} if the component
+		 *         didn't provide one
+		 */
+		public String getLocation();
+
+		/**
+		 * @return the point in time loading was scheduled
+		 */
+		public long getStart();
+
+		/**
+		 * @return the time between scheduling the load and handing the loaded object
+		 *         over to the component
+		 */
+		public long getDuration();
+
+		/**
+		 * @return {@code true} if the FXML file was loaded successfully
+		 */
+		public boolean isSuccessful();
+	}
+
+	/**
+	 * @return the uptime of the JVM at the moment IoCFX was activated, in
+	 *         milliseconds
+	 */
+	public long getJvmUptimeAtLaunch();
+
+	/**
+	 * Gets all milestones reached so far, in the order they were reached.
+	 *
+	 * @return a map from milestone names like {@link #TOOLKIT_STARTED} to the
+	 *         point in time they were reached
+	 */
+	public Map<String, Long> getMilestones();
+
+	/**
+	 * @return the time between the activation of IoCFX and the first stage being
+	 *         shown or {@code -1} if no stage has been shown yet
+	 */
+	public long getTimeToFirstStage();
+
+	/**
+	 * @return all FXML files that have been loaded so far, in the order they
+	 *         finished loading
+	 */
+	public List<FxmlLoad> getFxmlLoads();
+}
@@ -0,0 +1,103 @@
+package net.bbmsoft.iocfx.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.launch.Framework;
+
+import net.bbmsoft.iocfx.fxml.impl.ClassResolutionCache;
+import net.bbmsoft.iocfx.fxml.impl.OsgiFxmlLoader;
+
+/**
+ * Measures how fast the class loader of {@link OsgiFxmlLoader} resolves class
+ * names used in FXML files, both for classes it can find and for classes it
+ * can't, with and without the help of the {@link ClassResolutionCache}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassResolutionBenchmark {
+
+	private static final String EXISTING_CLASS = "javafx.scene.layout.VBox";
+	private static final String MISSING_CLASS = "net.bbmsoft.iocfx.benchmarks.DoesNotExist";
+
+	private Framework framework;
+	private ClassResolutionCache cache;
+	private OsgiFxmlLoader loader;
+	private ClassLoader classLoader;
+	private BundleEvent evictSystemBundle;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+
+		this.framework = Harness.startFramework(Collections.emptyMap());
+		BundleContext ctx = this.framework.getBundleContext();
+
+		this.cache = new ClassResolutionCache();
+		this.cache.activate(ctx);
+
+		this.loader = new OsgiFxmlLoader();
+		Harness.inject(this.loader, "cache", this.cache);
+		this.loader.activate(ctx);
+
+		this.classLoader = this.loader.getClassLoader();
+		this.evictSystemBundle = new BundleEvent(BundleEvent.UPDATED, this.framework);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.loader.deactivate();
+		this.cache.deactivate();
+		Harness.stopFramework(this.framework);
+	}
+
+	@Benchmark
+	public Class<?> hit() throws ClassNotFoundException {
+		return this.classLoader.loadClass(EXISTING_CLASS);
+	}
+
+	@Benchmark
+	public Class<?> hitUncached() throws ClassNotFoundException {
+		this.cache.bundleChanged(this.evictSystemBundle);
+		return this.classLoader.loadClass(EXISTING_CLASS);
+	}
+
+	@Benchmark
+	public Object miss() {
+		try {
+			return this.classLoader.loadClass(MISSING_CLASS);
+		} catch (ClassNotFoundException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object missUncached() {
+		this.cache.bundleChanged(this.evictSystemBundle);
+		try {
+			return this.classLoader.loadClass(MISSING_CLASS);
+		} catch (ClassNotFoundException e) {
+			return e;
+		}
+	}
+}
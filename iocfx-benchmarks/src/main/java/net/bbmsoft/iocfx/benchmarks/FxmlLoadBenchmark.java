@@ -0,0 +1,193 @@
+package net.bbmsoft.iocfx.benchmarks;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.launch.Framework;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import net.bbmsoft.iocfx.Fxml;
+import net.bbmsoft.iocfx.StageService;
+import net.bbmsoft.iocfx.benchmarks.Harness.PrototypeServiceObjects;
+import net.bbmsoft.iocfx.fxml.impl.ClassResolutionCache;
+import net.bbmsoft.iocfx.fxml.impl.CompiledFxmlLoader;
+import net.bbmsoft.iocfx.fxml.impl.FxmlLoaderComponent;
+import net.bbmsoft.iocfx.fxml.impl.FxmlLoaderPool;
+import net.bbmsoft.iocfx.fxml.impl.FxmlTemplateCache;
+import net.bbmsoft.iocfx.fxml.impl.OsgiFxmlLoader;
+import net.bbmsoft.iocfx.impl.BackgroundExecutor;
+import net.bbmsoft.iocfx.impl.SceneGraphRegistry;
+import net.bbmsoft.iocfx.impl.StartupProfiler;
+import net.bbmsoft.iocfx.platform.impl.FxDispatcher;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler;
+import net.bbmsoft.iocfx.platform.impl.FxThreadActivity;
+import net.bbmsoft.iocfx.platform.impl.PlatformMetricsImpl;
+import net.bbmsoft.iocfx.platform.impl.PlatformWrapper;
+
+/**
+ * Measures the time from registering an {@link Fxml.Consumer} with the
+ * {@link FxmlLoaderComponent} until the loaded layout has been handed to it,
+ * for a few typical layouts and with synchronous as well as asynchronous
+ * loading.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+		"-Djava.awt.headless=true" })
+public class FxmlLoadBenchmark {
+
+	@Param({ "Form.fxml", "Dashboard.fxml" })
+	public String layout;
+
+	@Param({ "false", "true" })
+	public String async;
+
+	private Framework framework;
+	private ClassResolutionCache classCache;
+	private FxmlTemplateCache templateCache;
+	private BackgroundExecutor executor;
+	private FxmlLoaderPool loaders;
+	private FxmlLoaderComponent component;
+	private URL location;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+
+		Harness.startToolkit();
+
+		Map<String, String> properties = new HashMap<>();
+		properties.put(FxmlLoaderComponent.ASYNC_LOADING, this.async);
+		properties.put(FxmlLoaderComponent.BATCH_WINDOW, "0");
+
+		this.framework = Harness.startFramework(properties);
+		BundleContext ctx = this.framework.getBundleContext();
+
+		this.classCache = new ClassResolutionCache();
+		this.classCache.activate(ctx);
+
+		this.templateCache = new FxmlTemplateCache();
+		this.templateCache.activate(ctx);
+
+		this.executor = new BackgroundExecutor();
+		this.executor.activate(ctx);
+
+		PlatformMetricsImpl metrics = new PlatformMetricsImpl(TimeUnit.MILLISECONDS.toNanos(50));
+		FxDispatcher dispatcher = new FxDispatcher(TimeUnit.MILLISECONDS.toNanos(8), metrics);
+		PlatformWrapper platform = new PlatformWrapper(dispatcher, null);
+
+		StartupProfiler profiler = new StartupProfiler();
+		Harness.inject(profiler, "log", Harness.SILENT_LOGGER);
+		Harness.inject(profiler, "executor", this.executor);
+		profiler.activate(ctx);
+
+		PrototypeServiceObjects<FXMLLoader> loaderFactory = new PrototypeServiceObjects<>(() -> {
+			OsgiFxmlLoader loader = new OsgiFxmlLoader();
+			Harness.inject(loader, "cache", this.classCache);
+			loader.activate(ctx);
+			return loader;
+		}, loader -> ((OsgiFxmlLoader) loader).deactivate());
+
+		SceneGraphRegistry sceneGraph = new SceneGraphRegistry();
+		Harness.inject(sceneGraph, "platform", platform);
+		Harness.inject(sceneGraph, "log", Harness.SILENT_LOGGER);
+		sceneGraph.activate(ctx);
+
+		CompiledFxmlLoader compiledLoader = new CompiledFxmlLoader();
+		Harness.inject(compiledLoader, "cache", this.classCache);
+
+		this.loaders = new FxmlLoaderPool();
+		Harness.inject(this.loaders, "loaderFactory", loaderFactory);
+		this.loaders.activate(ctx);
+
+		PrototypeServiceObjects<StageService> stageFactory = new PrototypeServiceObjects<>(() -> {
+			throw new UnsupportedOperationException("Benchmark layouts are not applications");
+		}, stageService -> {
+		});
+
+		this.component = new FxmlLoaderComponent();
+		Harness.inject(this.component, "platform", platform);
+		Harness.inject(this.component, "scheduler", new FxScheduler(dispatcher));
+		Harness.inject(this.component, "log", Harness.SILENT_LOGGER);
+		Harness.inject(this.component, "loaders", this.loaders);
+		Harness.inject(this.component, "compiledLoader", compiledLoader);
+		Harness.inject(this.component, "sceneGraph", sceneGraph);
+		Harness.inject(this.component, "stageService", stageFactory);
+		Harness.inject(this.component, "executor", this.executor);
+		Harness.inject(this.component, "templateCache", this.templateCache);
+		Harness.inject(this.component, "activity", new FxThreadActivity());
+		Harness.inject(this.component, "metrics", metrics);
+		Harness.inject(this.component, "profiler", profiler);
+		this.component.activate(ctx);
+
+		this.location = FxmlLoadBenchmark.class.getResource(this.layout);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		this.component.deactivate();
+		this.loaders.deactivate();
+		this.executor.deactivate();
+		this.templateCache.deactivate();
+		this.classCache.deactivate();
+		Harness.stopFramework(this.framework);
+	}
+
+	@Benchmark
+	public Node load() throws InterruptedException {
+
+		LayoutConsumer consumer = new LayoutConsumer(this.location);
+
+		this.component.addFxmlConsumer(consumer);
+		consumer.loaded.await();
+		this.component.removeFxmlConsumer(consumer);
+
+		return consumer.root;
+	}
+
+	private static class LayoutConsumer implements Fxml.Consumer<Node> {
+
+		private final URL location;
+		private final CountDownLatch loaded;
+		private volatile Node root;
+
+		public LayoutConsumer(URL location) {
+			this.location = location;
+			this.loaded = new CountDownLatch(1);
+		}
+
+		@Override
+		public URL getLocation() {
+			return this.location;
+		}
+
+		@Override
+		public void accept(Node root) {
+			this.root = root;
+			this.loaded.countDown();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package net.bbmsoft.iocfx.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.launch.FrameworkFactory;
+import org.osgi.service.component.ComponentServiceObjects;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+
+/**
+ * Sets up the environment IoCFX components need without a running SCR: an
+ * embedded OSGi framework, a JavaFX toolkit and a way of wiring components by
+ * hand. Benchmarks that need the toolkit run it headless on Monocle, see their
+ * fork arguments.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+final class Harness {
+
+	static final MinLogger SILENT_LOGGER = new MinLogger() {
+
+		@Override
+		public boolean isInfoEnabled() {
+			return false;
+		}
+
+		@Override
+		public boolean isErrorEnabled() {
+			return false;
+		}
+
+		@Override
+		public void info(String message) {
+			// benchmarks stay quiet
+		}
+
+		@Override
+		public void error(String message) {
+			// benchmarks stay quiet
+		}
+
+		@Override
+		public void error(String message, Throwable e) {
+			// benchmarks stay quiet
+		}
+	};
+
+	private static boolean toolkitStarted;
+
+	private Harness() {
+		// static helper
+	}
+
+	static Framework startFramework(Map<String, String> properties) throws IOException, BundleException {
+
+		Map<String, String> config = new HashMap<>(properties);
+		config.put(Constants.FRAMEWORK_STORAGE, Files.createTempDirectory("iocfx-benchmarks").toString());
+		config.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+
+		FrameworkFactory factory = ServiceLoader.load(FrameworkFactory.class).iterator().next();
+		Framework framework = factory.newFramework(config);
+		framework.start();
+
+		return framework;
+	}
+
+	static void stopFramework(Framework framework) throws BundleException, InterruptedException {
+		framework.stop();
+		framework.waitForStop(10_000);
+	}
+
+	static synchronized void startToolkit() throws InterruptedException {
+
+		if (toolkitStarted) {
+			return;
+		}
+
+		Thread launcher = new Thread(() -> Application.launch(ToolkitApplication.class), "JavaFX Launcher Thread");
+		launcher.setDaemon(true);
+		launcher.start();
+
+		ToolkitApplication.STARTED.await();
+		toolkitStarted = true;
+	}
+
+	/**
+	 * Sets a field that would otherwise be injected by SCR.
+	 */
+	static void inject(Object component, String fieldName, Object value) {
+
+		try {
+			Field field = component.getClass().getDeclaredField(fieldName);
+			field.setAccessible(true);
+			field.set(component, value);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot inject " + fieldName + " into " + component, e);
+		}
+	}
+
+	public static class ToolkitApplication extends Application {
+
+		static final CountDownLatch STARTED = new CountDownLatch(1);
+
+		@Override
+		public void start(Stage primaryStage) {
+			Platform.setImplicitExit(false);
+			STARTED.countDown();
+		}
+	}
+
+	/**
+	 * Stand-in for the {@link ComponentServiceObjects} SCR provides for prototype
+	 * references.
+	 */
+	static class PrototypeServiceObjects<S> implements ComponentServiceObjects<S> {
+
+		private final Supplier<S> factory;
+		private final Consumer<S> disposer;
+
+		PrototypeServiceObjects(Supplier<S> factory, Consumer<S> disposer) {
+			this.factory = factory;
+			this.disposer = disposer;
+		}
+
+		@Override
+		public S getService() {
+			return this.factory.get();
+		}
+
+		@Override
+		public void ungetService(S service) {
+			this.disposer.accept(service);
+		}
+
+		@Override
+		public ServiceReference<S> getServiceReference() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package net.bbmsoft.iocfx.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.bbmsoft.iocfx.platform.impl.FxDispatcher;
+import net.bbmsoft.iocfx.platform.impl.PlatformMetricsImpl;
+import net.bbmsoft.iocfx.platform.impl.PlatformWrapper;
+
+/**
+ * Measures the throughput of {@link PlatformWrapper#runLater(Runnable)} for
+ * bursts of small tasks and the round trip latency of
+ * {@link PlatformWrapper#runAndWait(Runnable)}, using plain
+ * {@link javafx.application.Platform#runLater(Runnable)} as a baseline.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw",
+		"-Djava.awt.headless=true" })
+public class PlatformDispatchBenchmark {
+
+	private static final int BURST_SIZE = 1000;
+
+	private static final Runnable NO_OP = () -> {
+	};
+
+	private PlatformWrapper platform;
+
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException {
+		Harness.startToolkit();
+		PlatformMetricsImpl metrics = new PlatformMetricsImpl(TimeUnit.MILLISECONDS.toNanos(50));
+		this.platform = new PlatformWrapper(new FxDispatcher(TimeUnit.MILLISECONDS.toNanos(8), metrics), null);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@OperationsPerInvocation(BURST_SIZE)
+	public void runLaterBurst() throws InterruptedException {
+
+		CountDownLatch done = new CountDownLatch(1);
+
+		for (int i = 0; i < BURST_SIZE - 1; i++) {
+			this.platform.runLater(NO_OP);
+		}
+
+		this.platform.runLater(done::countDown);
+		done.await();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@OperationsPerInvocation(BURST_SIZE)
+	public void fxRunLaterBurstBaseline() throws InterruptedException {
+
+		CountDownLatch done = new CountDownLatch(1);
+
+		for (int i = 0; i < BURST_SIZE - 1; i++) {
+			javafx.application.Platform.runLater(NO_OP);
+		}
+
+		javafx.application.Platform.runLater(done::countDown);
+		done.await();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void runAndWait() throws InterruptedException {
+		this.platform.runAndWait(NO_OP);
+	}
+}
@@ -0,0 +1,136 @@
+package net.bbmsoft.iocfx.compiler;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import net.bbmsoft.iocfx.FxmlBuilder;
+
+/**
+ * Annotation processor that compiles FXML files into {@link FxmlBuilder}
+ * classes. For every class implementing {@code net.bbmsoft.iocfx.Fxml} it
+ * looks for an FXML file with the same simple name in the same package, e.g.
+ * {@code com/example/MainView.fxml} for {@code com.example.MainView}, and
+ * generates a builder for it.
+ * <p>
+ * FXML files using features the compiler doesn't support (like
+ * {@code fx:include}, scripts or expression bindings) are skipped with a note;
+ * they are loaded by an {@code FXMLLoader} at runtime as before.
+ *
+ * @author Michael Bachmann
+ *
+ */
+@SupportedAnnotationTypes("*")
+public class FxmlBuilderProcessor extends AbstractProcessor {
+
+	private static final String FXML_INTERFACE = "net.bbmsoft.iocfx.Fxml";
+
+	private final Set<String> compiled = new HashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+		TypeElement fxmlInterface = this.processingEnv.getElementUtils().getTypeElement(FXML_INTERFACE);
+
+		if (fxmlInterface == null) {
+			return false;
+		}
+
+		TypeMirror fxmlType = this.processingEnv.getTypeUtils().erasure(fxmlInterface.asType());
+
+		for (Element element : roundEnv.getRootElements()) {
+			if (element.getKind() == ElementKind.CLASS
+					&& this.processingEnv.getTypeUtils().isAssignable(element.asType(), fxmlType)) {
+				this.compile((TypeElement) element);
+			}
+		}
+
+		// never claim any annotations
+		return false;
+	}
+
+	private void compile(TypeElement component) {
+
+		PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(component);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String fileName = component.getSimpleName() + ".fxml";
+		String resourcePath = packageName.isEmpty() ? fileName : packageName.replace('.', '/') + "/" + fileName;
+		String builderName = FxmlBuilder.getBuilderClassName(resourcePath);
+
+		if (!this.compiled.add(builderName)) {
+			return;
+		}
+
+		String fxml = this.read(packageName, fileName);
+
+		if (fxml == null) {
+			// no FXML file following the naming convention
+			return;
+		}
+
+		String source;
+		try {
+			source = new FxmlCompiler(this.processingEnv.getElementUtils(), this.processingEnv.getTypeUtils())
+					.compile(fxml, builderName);
+		} catch (FxmlCompiler.UnsupportedFxmlException e) {
+			this.processingEnv.getMessager().printMessage(Kind.NOTE,
+					resourcePath + " will be loaded at runtime: " + e.getMessage(), component);
+			return;
+		}
+
+		try {
+			JavaFileObject file = this.processingEnv.getFiler().createSourceFile(builderName, component);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source);
+			}
+		} catch (IOException e) {
+			this.processingEnv.getMessager().printMessage(Kind.WARNING,
+					"Could not write FXML builder for " + resourcePath + ": " + e.getMessage(), component);
+		}
+	}
+
+	private String read(String packageName, String fileName) {
+
+		// resources are usually copied to the class output before compilation starts
+		StandardLocation[] locations = { StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_PATH,
+				StandardLocation.CLASS_PATH };
+
+		for (StandardLocation location : locations) {
+			try {
+				FileObject file = this.processingEnv.getFiler().getResource(location, packageName, fileName);
+				try (InputStream in = file.openInputStream()) {
+					return FxmlCompiler.readFully(in);
+				}
+			} catch (FileNotFoundException | NoSuchFileException e) {
+				// try the next location
+			} catch (IOException | IllegalArgumentException e) {
+				// location not supported by the compiler environment
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,1152 @@
+package net.bbmsoft.iocfx.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Translates a single FXML document into the Java source of an
+ * {@code FxmlBuilder}. All types, properties and conversions are resolved at
+ * compile time using the annotation processing type model, so the generated
+ * code contains plain constructor and method calls only.
+ * <p>
+ * The compiler supports the commonly used subset of FXML: imports, instance
+ * and property elements, static properties, {@code @DefaultProperty},
+ * {@code @NamedArg} constructors, {@code fx:root}, {@code fx:id},
+ * {@code fx:controller}, {@code fx:define}, {@code fx:value},
+ * {@code fx:constant}, {@code fx:factory}, resource ({@code %}) and location
+ * ({@code @}) references and controller event handlers ({@code #}). Anything
+ * else causes an {@link UnsupportedFxmlException}, so the file is left to
+ * {@code FXMLLoader} at runtime.
+ *
+ * @author Michael Bachmann
+ *
+ */
+class FxmlCompiler {
+
+	private static final String FX_NAMESPACE = "http://javafx.com/fxml";
+	private static final String FX_PREFIX = "fx";
+
+	private static final String NAMED_ARG = "javafx.beans.NamedArg";
+	private static final String DEFAULT_PROPERTY = "javafx.beans.DefaultProperty";
+	private static final String EVENT_HANDLER = "javafx.event.EventHandler";
+
+	private final Elements elements;
+	private final Types types;
+
+	private final Map<String, String> classImports;
+	private final List<String> packageImports;
+	private final StringBuilder body;
+
+	private int variables;
+
+	/**
+	 * Thrown if an FXML document uses features the compiler doesn't support.
+	 */
+	static class UnsupportedFxmlException extends Exception {
+
+		private static final long serialVersionUID = 1L;
+
+		public UnsupportedFxmlException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * An object created by the generated code.
+	 */
+	private static class Instance {
+
+		private final String variable;
+		private final TypeMirror type;
+
+		public Instance(String variable, TypeMirror type) {
+			this.variable = variable;
+			this.type = type;
+		}
+	}
+
+	public FxmlCompiler(Elements elements, Types types) {
+		this.elements = elements;
+		this.types = types;
+		this.classImports = new HashMap<>();
+		this.packageImports = new ArrayList<>();
+		this.packageImports.add("java.lang");
+		this.body = new StringBuilder();
+	}
+
+	/**
+	 * Compiles an FXML document.
+	 *
+	 * @param fxml
+	 *            the content of the FXML file
+	 * @param builderName
+	 *            the fully qualified name of the builder class to generate
+	 * @return the Java source of the builder class
+	 * @throws UnsupportedFxmlException
+	 *             if the document can't be compiled
+	 */
+	public String compile(String fxml, String builderName) throws UnsupportedFxmlException {
+
+		Document document = parse(fxml);
+
+		NodeList nodes = document.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Node node = nodes.item(i);
+			if (node.getNodeType() == Node.PROCESSING_INSTRUCTION_NODE) {
+				this.processingInstruction((ProcessingInstruction) node);
+			}
+		}
+
+		org.w3c.dom.Element root = document.getDocumentElement();
+		Attr controller = fxAttribute(root, "controller");
+
+		if (controller != null) {
+			TypeElement controllerType = this.resolveType(controller.getValue());
+			if (!this.hasPublicNoArgConstructor(controllerType)) {
+				throw new UnsupportedFxmlException("controller " + controllerType + " can't be instantiated");
+			}
+			// like the FXMLLoader, refuse to replace a controller that has been set already
+			this.line("if (context.getController() != null) {");
+			this.line("\tthrow new java.io.IOException(\"Controller value already specified.\");");
+			this.line("}");
+			this.line("context.setController(new " + this.typeName(controllerType.asType()) + "());");
+		}
+
+		Instance result = this.instance(root, true);
+		this.line("return " + result.variable + ";");
+
+		return this.generate(builderName);
+	}
+
+	public static String readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int read; (read = in.read(buffer)) >= 0;) {
+			out.write(buffer, 0, read);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static Document parse(String fxml) throws UnsupportedFxmlException {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			return builder.parse(new InputSource(new StringReader(fxml)));
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			throw new UnsupportedFxmlException("malformed document: " + e.getMessage());
+		}
+	}
+
+	private void processingInstruction(ProcessingInstruction instruction) throws UnsupportedFxmlException {
+
+		String target = instruction.getTarget();
+		String data = instruction.getData().trim();
+
+		if ("import".equals(target)) {
+			if (data.endsWith(".*")) {
+				this.packageImports.add(data.substring(0, data.length() - 2));
+			} else {
+				this.classImports.put(data.substring(data.lastIndexOf('.') + 1), data);
+			}
+		} else if ("language".equals(target)) {
+			throw new UnsupportedFxmlException("scripts are not supported");
+		}
+	}
+
+	private Instance instance(org.w3c.dom.Element element, boolean documentRoot) throws UnsupportedFxmlException {
+
+		String variable = "v" + this.variables++;
+		Instance instance;
+
+		Map<String, String> attributes = new LinkedHashMap<>();
+		Map<String, String> staticAttributes = new LinkedHashMap<>();
+		String id = null;
+		String value = null;
+		String constant = null;
+		String factory = null;
+
+		NamedNodeMap attributeNodes = element.getAttributes();
+		for (int i = 0; i < attributeNodes.getLength(); i++) {
+			Attr attribute = (Attr) attributeNodes.item(i);
+			String name = attribute.getLocalName() != null ? attribute.getLocalName() : attribute.getName();
+			if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())
+					|| XMLConstants.XMLNS_ATTRIBUTE.equals(attribute.getName())) {
+				continue;
+			} else if (isFx(attribute)) {
+				switch (name) {
+				case "id":
+					id = attribute.getValue();
+					break;
+				case "value":
+					value = attribute.getValue();
+					break;
+				case "constant":
+					constant = attribute.getValue();
+					break;
+				case "factory":
+					factory = attribute.getValue();
+					break;
+				case "controller":
+					if (!documentRoot) {
+						throw new UnsupportedFxmlException("fx:controller is only allowed on the root element");
+					}
+					break;
+				default:
+					throw new UnsupportedFxmlException("fx:" + name + " is not supported");
+				}
+			} else if (name.contains(".")) {
+				staticAttributes.put(name, attribute.getValue());
+			} else {
+				attributes.put(name, attribute.getValue());
+			}
+		}
+
+		List<org.w3c.dom.Element> children = childElements(element);
+
+		if (isFx(element)) {
+
+			if (!"root".equals(element.getLocalName()) || !documentRoot) {
+				throw new UnsupportedFxmlException("fx:" + element.getLocalName() + " is not supported");
+			}
+
+			String type = attributes.remove("type");
+			if (type == null) {
+				throw new UnsupportedFxmlException("fx:root without a type");
+			}
+
+			TypeMirror rootType = this.types.erasure(this.resolveType(type).asType());
+			this.line("if (context.getRoot() == null) {");
+			this.line("\tthrow new java.io.IOException(\"Root hasn't been set. Use method setRoot() before load.\");");
+			this.line("}");
+			this.line(this.typeName(rootType) + " " + variable + " = (" + this.typeName(rootType)
+					+ ") context.getRoot();");
+			instance = new Instance(variable, rootType);
+
+		} else {
+
+			TypeElement type = this.resolveType(element.getLocalName());
+			TypeMirror erasure = this.types.erasure(type.asType());
+
+			if (value != null) {
+				instance = new Instance(variable, erasure);
+				this.line(this.typeName(erasure) + " " + variable + " = " + this.valueOf(value, type) + ";");
+			} else if (constant != null) {
+				VariableElement field = this.findConstant(type, constant);
+				TypeMirror fieldType = this.types.erasure(field.asType());
+				instance = new Instance(variable, fieldType);
+				this.line(this.typeName(fieldType) + " " + variable + " = " + this.typeName(erasure) + "." + constant
+						+ ";");
+			} else if (factory != null) {
+				ExecutableElement method = this.findFactory(type, factory);
+				TypeMirror returnType = this.types.erasure(method.getReturnType());
+				instance = new Instance(variable, returnType);
+				this.line(this.typeName(returnType) + " " + variable + " = " + this.typeName(erasure) + "." + factory
+						+ "();");
+			} else {
+				instance = this.construct(variable, type, attributes, children);
+			}
+		}
+
+		if (id != null) {
+			this.line("context.getNamespace().put(" + literal(id) + ", " + variable + ");");
+			if (!attributes.containsKey("id") && !this.findSetters(instance.type, "id").isEmpty()) {
+				this.line(variable + ".setId(" + literal(id) + ");");
+			}
+		}
+
+		for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+			this.applyAttribute(instance, attribute.getKey(), attribute.getValue());
+		}
+
+		for (Map.Entry<String, String> attribute : staticAttributes.entrySet()) {
+			this.applyStaticAttribute(instance, attribute.getKey(), attribute.getValue());
+		}
+
+		for (org.w3c.dom.Element child : children) {
+			this.child(instance, child);
+		}
+
+		if (hasText(element)) {
+			throw new UnsupportedFxmlException("text content in <" + element.getTagName() + "> is not supported");
+		}
+
+		return instance;
+	}
+
+	private Instance construct(String variable, TypeElement type, Map<String, String> attributes,
+			List<org.w3c.dom.Element> children) throws UnsupportedFxmlException {
+
+		TypeMirror erasure = this.types.erasure(type.asType());
+		Set<String> required = new HashSet<>();
+
+		for (String attribute : attributes.keySet()) {
+			if (!this.isWritable(erasure, attribute)) {
+				required.add(attribute);
+			}
+		}
+
+		Map<String, org.w3c.dom.Element> propertyElements = new HashMap<>();
+		for (org.w3c.dom.Element child : children) {
+			String name = child.getLocalName();
+			if (!isFx(child) && isInstancePropertyName(name)) {
+				propertyElements.put(name, child);
+				if (!this.isWritable(erasure, name)) {
+					required.add(name);
+				}
+			}
+		}
+
+		if (required.isEmpty() && this.hasPublicNoArgConstructor(type)) {
+			this.line(this.typeName(erasure) + " " + variable + " = new " + this.typeName(erasure) + "();");
+			return new Instance(variable, erasure);
+		}
+
+		ExecutableElement constructor = this.findNamedArgConstructor(type, attributes.keySet(),
+				propertyElements.keySet(), required);
+
+		List<String> arguments = new ArrayList<>();
+
+		for (VariableElement parameter : constructor.getParameters()) {
+
+			AnnotationMirror namedArg = this.getAnnotation(parameter, NAMED_ARG);
+			String name = this.getAnnotationValue(namedArg, "value");
+			TypeMirror parameterType = parameter.asType();
+
+			if (attributes.containsKey(name)) {
+				arguments.add(this.convert(attributes.remove(name), parameterType, name));
+			} else if (propertyElements.containsKey(name)) {
+				org.w3c.dom.Element propertyElement = propertyElements.get(name);
+				children.remove(propertyElement);
+				arguments.add(this.singleValue(propertyElement, parameterType, name));
+			} else {
+				String defaultValue = this.getAnnotationValue(namedArg, "defaultValue");
+				arguments.add(defaultValue.isEmpty() ? defaultValue(parameterType)
+						: this.convert(defaultValue, parameterType, name));
+			}
+		}
+
+		this.line(this.typeName(erasure) + " " + variable + " = new " + this.typeName(erasure) + "("
+				+ String.join(", ", arguments) + ");");
+
+		return new Instance(variable, erasure);
+	}
+
+	private void child(Instance parent, org.w3c.dom.Element child) throws UnsupportedFxmlException {
+
+		String name = child.getLocalName();
+
+		if (isFx(child)) {
+			if ("define".equals(name)) {
+				for (org.w3c.dom.Element definition : childElements(child)) {
+					this.instance(definition, false);
+				}
+				return;
+			}
+			throw new UnsupportedFxmlException("fx:" + name + " is not supported");
+		}
+
+		if (isInstancePropertyName(name)) {
+			this.applyPropertyElement(parent, name, child);
+		} else if (isStaticPropertyName(name)) {
+			this.applyStaticPropertyElement(parent, name, child);
+		} else {
+			Instance value = this.instance(child, false);
+			String defaultProperty = this.getDefaultProperty(parent.type);
+			if (defaultProperty != null) {
+				this.applyValue(parent, defaultProperty, value);
+			} else if (this.isCollection(parent.type)) {
+				this.line(parent.variable + ".add(" + value.variable + ");");
+			} else {
+				throw new UnsupportedFxmlException(parent.type + " has no default property");
+			}
+		}
+	}
+
+	private void applyAttribute(Instance instance, String name, String value) throws UnsupportedFxmlException {
+
+		for (ExecutableElement setter : this.findSetters(instance.type, name)) {
+			String expression = this.tryConvert(value, setter.getParameters().get(0).asType());
+			if (expression != null) {
+				this.line(instance.variable + "." + setter.getSimpleName() + "(" + expression + ");");
+				return;
+			}
+		}
+
+		ExecutableElement getter = this.findListGetter(instance.type, name);
+		if (getter != null) {
+			TypeMirror elementType = this.elementType(getter.getReturnType());
+			for (String item : value.split(",")) {
+				this.line(instance.variable + "." + getter.getSimpleName() + "().add("
+						+ this.convert(item.trim(), elementType, name) + ");");
+			}
+			return;
+		}
+
+		throw new UnsupportedFxmlException("can't set property " + name + " of " + instance.type + " to " + value);
+	}
+
+	private void applyStaticAttribute(Instance instance, String name, String value)
+			throws UnsupportedFxmlException {
+
+		int dot = name.lastIndexOf('.');
+		TypeElement type = this.resolveType(name.substring(0, dot));
+		String property = name.substring(dot + 1);
+
+		for (ExecutableElement setter : this.findStaticSetters(type, property, instance.type)) {
+			String expression = this.tryConvert(value, setter.getParameters().get(1).asType());
+			if (expression != null) {
+				this.line(this.typeName(this.types.erasure(type.asType())) + "." + setter.getSimpleName() + "("
+						+ instance.variable + ", " + expression + ");");
+				return;
+			}
+		}
+
+		throw new UnsupportedFxmlException("can't set static property " + name + " to " + value);
+	}
+
+	private void applyPropertyElement(Instance instance, String name, org.w3c.dom.Element element)
+			throws UnsupportedFxmlException {
+
+		if (element.hasAttributes()) {
+			throw new UnsupportedFxmlException("attributes on property element <" + name + "> are not supported");
+		}
+
+		List<org.w3c.dom.Element> children = childElements(element);
+
+		if (children.isEmpty()) {
+			String text = element.getTextContent().trim();
+			this.applyAttribute(instance, name, text);
+			return;
+		}
+
+		if (hasText(element)) {
+			throw new UnsupportedFxmlException("mixed content in <" + name + "> is not supported");
+		}
+
+		List<Instance> values = new ArrayList<>();
+		for (org.w3c.dom.Element child : children) {
+			if (isFx(child) || !isInstanceName(child.getLocalName())) {
+				throw new UnsupportedFxmlException("<" + child.getTagName() + "> inside <" + name
+						+ "> is not supported");
+			}
+			values.add(this.instance(child, false));
+		}
+
+		for (Instance value : values) {
+			this.applyValue(instance, name, value);
+		}
+	}
+
+	private void applyStaticPropertyElement(Instance instance, String name, org.w3c.dom.Element element)
+			throws UnsupportedFxmlException {
+
+		List<org.w3c.dom.Element> children = childElements(element);
+
+		if (children.isEmpty()) {
+			this.applyStaticAttribute(instance, name, element.getTextContent().trim());
+			return;
+		}
+
+		if (children.size() != 1 || hasText(element)) {
+			throw new UnsupportedFxmlException("static property element <" + name + "> needs exactly one value");
+		}
+
+		Instance value = this.instance(children.get(0), false);
+
+		int dot = name.lastIndexOf('.');
+		TypeElement type = this.resolveType(name.substring(0, dot));
+
+		for (ExecutableElement setter : this.findStaticSetters(type, name.substring(dot + 1), instance.type)) {
+			if (this.isAssignable(value.type, setter.getParameters().get(1).asType())) {
+				this.line(this.typeName(this.types.erasure(type.asType())) + "." + setter.getSimpleName() + "("
+						+ instance.variable + ", " + value.variable + ");");
+				return;
+			}
+		}
+
+		throw new UnsupportedFxmlException("can't set static property " + name + " to a " + value.type);
+	}
+
+	private void applyValue(Instance instance, String name, Instance value) throws UnsupportedFxmlException {
+
+		// like the FXMLLoader, only add to list properties that are read-only and use
+		// the setter otherwise, e.g. for a list created with fx:factory
+		List<ExecutableElement> setters = this.findSetters(instance.type, name);
+
+		for (ExecutableElement setter : setters) {
+			if (this.isAssignable(value.type, setter.getParameters().get(0).asType())) {
+				this.line(instance.variable + "." + setter.getSimpleName() + "(" + value.variable + ");");
+				return;
+			}
+		}
+
+		ExecutableElement getter = setters.isEmpty() ? this.findListGetter(instance.type, name) : null;
+		if (getter != null) {
+			if (!this.isAssignable(value.type, this.elementType(getter.getReturnType()))) {
+				throw new UnsupportedFxmlException("can't add a " + value.type + " to " + name);
+			}
+			this.line(instance.variable + "." + getter.getSimpleName() + "().add(" + value.variable + ");");
+			return;
+		}
+
+		throw new UnsupportedFxmlException("can't set property " + name + " of " + instance.type + " to a "
+				+ value.type);
+	}
+
+	private String singleValue(org.w3c.dom.Element element, TypeMirror type, String name)
+			throws UnsupportedFxmlException {
+
+		List<org.w3c.dom.Element> children = childElements(element);
+
+		if (children.isEmpty()) {
+			return this.convert(element.getTextContent().trim(), type, name);
+		}
+
+		if (children.size() != 1 || hasText(element)) {
+			throw new UnsupportedFxmlException("constructor argument <" + name + "> needs exactly one value");
+		}
+
+		Instance value = this.instance(children.get(0), false);
+		if (!this.isAssignable(value.type, type)) {
+			throw new UnsupportedFxmlException("constructor argument " + name + " can't be a " + value.type);
+		}
+
+		return value.variable;
+	}
+
+	private String convert(String value, TypeMirror type, String name) throws UnsupportedFxmlException {
+
+		String expression = this.tryConvert(value, type);
+
+		if (expression == null) {
+			throw new UnsupportedFxmlException("can't convert \"" + value + "\" to " + type + " for " + name);
+		}
+
+		return expression;
+	}
+
+	/**
+	 * Converts an attribute value to a Java expression of the specified type.
+	 *
+	 * @return the expression or {@code null} if the value can't be converted
+	 */
+	private String tryConvert(String value, TypeMirror type) throws UnsupportedFxmlException {
+
+		if (value.startsWith("\\")) {
+			return this.literal(value.substring(1), type);
+		}
+
+		if (value.startsWith("$")) {
+			throw new UnsupportedFxmlException("variables and expressions are not supported");
+		}
+
+		if (value.startsWith("%")) {
+			return this.isStringLike(type) ? "context.getResource(" + literal(value.substring(1)) + ")" : null;
+		}
+
+		if (value.startsWith("@")) {
+			return this.isStringLike(type) ? "context.resolve(" + literal(value.substring(1)) + ")" : null;
+		}
+
+		if (value.startsWith("#")) {
+			if (!this.isType(type, EVENT_HANDLER)) {
+				return null;
+			}
+			String handler = value.substring(1);
+			if (!isJavaIdentifier(handler)) {
+				throw new UnsupportedFxmlException("script event handlers are not supported");
+			}
+			return "context.getEventHandler(" + literal(handler) + ")";
+		}
+
+		return this.literal(value, type);
+	}
+
+	private String literal(String value, TypeMirror type) {
+
+		TypeMirror target = this.unbox(type);
+		String trimmed = value.trim();
+
+		try {
+			switch (target.getKind()) {
+			case BOOLEAN:
+				return Boolean.toString(Boolean.parseBoolean(trimmed));
+			case INT:
+				return Integer.toString(Integer.parseInt(trimmed));
+			case LONG:
+				return Long.parseLong(trimmed) + "L";
+			case SHORT:
+				return "(short) " + Short.parseShort(trimmed);
+			case BYTE:
+				return "(byte) " + Byte.parseByte(trimmed);
+			case DOUBLE:
+				return doubleLiteral(Double.parseDouble(trimmed));
+			case FLOAT:
+				return floatLiteral(Float.parseFloat(trimmed));
+			case CHAR:
+				return value.length() == 1 ? charLiteral(value.charAt(0)) : null;
+			default:
+				break;
+			}
+		} catch (NumberFormatException e) {
+			return null;
+		}
+
+		if (this.isStringLike(type)) {
+			return literal(value);
+		}
+
+		if (type.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+
+		TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+
+		if (typeElement.getKind() == ElementKind.ENUM) {
+			for (String candidate : new String[] { trimmed, toAllCaps(trimmed) }) {
+				for (Element member : typeElement.getEnclosedElements()) {
+					if (member.getKind() == ElementKind.ENUM_CONSTANT
+							&& member.getSimpleName().contentEquals(candidate)) {
+						return this.typeName(this.types.erasure(type)) + "." + candidate;
+					}
+				}
+			}
+			return null;
+		}
+
+		// any type with a static valueOf(String), e.g. Color or Paint
+		for (Element member : this.elements.getAllMembers(typeElement)) {
+			if (member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals("valueOf")
+					&& member.getModifiers().contains(Modifier.STATIC)
+					&& member.getModifiers().contains(Modifier.PUBLIC)) {
+				ExecutableElement method = (ExecutableElement) member;
+				if (method.getParameters().size() == 1
+						&& this.isType(method.getParameters().get(0).asType(), String.class.getName())
+						&& this.isAssignable(method.getReturnType(), type)) {
+					return this.typeName(this.types.erasure(typeElement.asType())) + ".valueOf(" + literal(value)
+							+ ")";
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private String valueOf(String value, TypeElement type) throws UnsupportedFxmlException {
+
+		if (this.isType(type.asType(), String.class.getName())) {
+			return literal(value);
+		}
+
+		String expression = this.literal(value, type.asType());
+
+		if (expression == null) {
+			throw new UnsupportedFxmlException("fx:value \"" + value + "\" can't be converted to " + type);
+		}
+
+		return expression;
+	}
+
+	private TypeElement resolveType(String name) throws UnsupportedFxmlException {
+
+		TypeElement type = this.elements.getTypeElement(name);
+
+		if (type == null) {
+
+			int dot = name.indexOf('.');
+			String simpleName = dot < 0 ? name : name.substring(0, dot);
+			String nested = dot < 0 ? "" : name.substring(dot);
+
+			String imported = this.classImports.get(simpleName);
+			if (imported != null) {
+				type = this.elements.getTypeElement(imported + nested);
+			}
+
+			for (int i = 0; type == null && i < this.packageImports.size(); i++) {
+				type = this.elements.getTypeElement(this.packageImports.get(i) + "." + name);
+			}
+		}
+
+		if (type == null) {
+			throw new UnsupportedFxmlException("unknown type " + name);
+		}
+
+		if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+			throw new UnsupportedFxmlException(name + " is not public");
+		}
+
+		return type;
+	}
+
+	private List<ExecutableElement> findSetters(TypeMirror type, String property) {
+
+		List<ExecutableElement> setters = new ArrayList<>();
+		String name = "set" + capitalize(property);
+
+		for (ExecutableElement method : this.publicMethods(type, name, false)) {
+			if (method.getParameters().size() == 1) {
+				setters.add(method);
+			}
+		}
+
+		return setters;
+	}
+
+	private List<ExecutableElement> findStaticSetters(TypeElement type, String property, TypeMirror target) {
+
+		List<ExecutableElement> setters = new ArrayList<>();
+		String name = "set" + capitalize(property);
+
+		for (ExecutableElement method : this.publicMethods(type.asType(), name, true)) {
+			if (method.getParameters().size() == 2
+					&& this.isAssignable(target, method.getParameters().get(0).asType())) {
+				setters.add(method);
+			}
+		}
+
+		return setters;
+	}
+
+	private ExecutableElement findListGetter(TypeMirror type, String property) {
+
+		String name = "get" + capitalize(property);
+		TypeMirror list = this.types.erasure(this.elements.getTypeElement(List.class.getName()).asType());
+
+		for (ExecutableElement method : this.publicMethods(type, name, false)) {
+			if (method.getParameters().isEmpty() && this.types.isAssignable(method.getReturnType(), list)) {
+				return method;
+			}
+		}
+
+		return null;
+	}
+
+	private boolean isWritable(TypeMirror type, String property) {
+		return !this.findSetters(type, property).isEmpty() || this.findListGetter(type, property) != null;
+	}
+
+	private List<ExecutableElement> publicMethods(TypeMirror type, String name, boolean isStatic) {
+
+		List<ExecutableElement> methods = new ArrayList<>();
+
+		if (type.getKind() != TypeKind.DECLARED) {
+			return methods;
+		}
+
+		TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+
+		for (Element member : this.elements.getAllMembers(typeElement)) {
+			if (member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals(name)
+					&& member.getModifiers().contains(Modifier.PUBLIC)
+					&& member.getModifiers().contains(Modifier.STATIC) == isStatic) {
+				methods.add((ExecutableElement) member);
+			}
+		}
+
+		return methods;
+	}
+
+	private ExecutableElement findNamedArgConstructor(TypeElement type, Set<String> attributes,
+			Set<String> propertyElements, Set<String> required) throws UnsupportedFxmlException {
+
+		ExecutableElement best = null;
+		int bestMatches = -1;
+
+		for (Element member : type.getEnclosedElements()) {
+
+			if (member.getKind() != ElementKind.CONSTRUCTOR || !member.getModifiers().contains(Modifier.PUBLIC)) {
+				continue;
+			}
+
+			ExecutableElement constructor = (ExecutableElement) member;
+			Set<String> names = new HashSet<>();
+			boolean named = true;
+
+			for (VariableElement parameter : constructor.getParameters()) {
+				AnnotationMirror namedArg = this.getAnnotation(parameter, NAMED_ARG);
+				if (namedArg == null) {
+					named = false;
+					break;
+				}
+				names.add(this.getAnnotationValue(namedArg, "value"));
+			}
+
+			if (!named || constructor.getParameters().isEmpty() || !names.containsAll(required)) {
+				continue;
+			}
+
+			int matches = 0;
+			for (String name : names) {
+				if (attributes.contains(name) || propertyElements.contains(name)) {
+					matches++;
+				}
+			}
+
+			if (matches > bestMatches || matches == bestMatches
+					&& constructor.getParameters().size() < best.getParameters().size()) {
+				best = constructor;
+				bestMatches = matches;
+			}
+		}
+
+		if (best == null) {
+			throw new UnsupportedFxmlException("no suitable constructor for " + type + " with " + required);
+		}
+
+		return best;
+	}
+
+	private VariableElement findConstant(TypeElement type, String name) throws UnsupportedFxmlException {
+
+		for (Element member : this.elements.getAllMembers(type)) {
+			if (member.getKind() == ElementKind.FIELD && member.getSimpleName().contentEquals(name)
+					&& member.getModifiers().contains(Modifier.STATIC)
+					&& member.getModifiers().contains(Modifier.PUBLIC)) {
+				return (VariableElement) member;
+			}
+		}
+
+		throw new UnsupportedFxmlException("unknown constant " + type + "." + name);
+	}
+
+	private ExecutableElement findFactory(TypeElement type, String name) throws UnsupportedFxmlException {
+
+		for (ExecutableElement method : this.publicMethods(type.asType(), name, true)) {
+			if (method.getParameters().isEmpty()) {
+				return method;
+			}
+		}
+
+		throw new UnsupportedFxmlException("unknown factory method " + type + "." + name + "()");
+	}
+
+	private String getDefaultProperty(TypeMirror type) {
+
+		for (TypeMirror t = type; t.getKind() == TypeKind.DECLARED; t = ((TypeElement) ((DeclaredType) t)
+				.asElement()).getSuperclass()) {
+			AnnotationMirror annotation = this.getAnnotation(((DeclaredType) t).asElement(), DEFAULT_PROPERTY);
+			if (annotation != null) {
+				return this.getAnnotationValue(annotation, "value");
+			}
+		}
+
+		return null;
+	}
+
+	private AnnotationMirror getAnnotation(Element element, String annotationType) {
+
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+			if (type.getQualifiedName().contentEquals(annotationType)) {
+				return annotation;
+			}
+		}
+
+		return null;
+	}
+
+	private String getAnnotationValue(AnnotationMirror annotation, String name) {
+
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : this.elements
+				.getElementValuesWithDefaults(annotation).entrySet()) {
+			if (e.getKey().getSimpleName().contentEquals(name)) {
+				return String.valueOf(e.getValue().getValue());
+			}
+		}
+
+		return "";
+	}
+
+	private boolean hasPublicNoArgConstructor(TypeElement type) {
+
+		if (type.getModifiers().contains(Modifier.ABSTRACT) || type.getKind() != ElementKind.CLASS) {
+			return false;
+		}
+
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.CONSTRUCTOR && member.getModifiers().contains(Modifier.PUBLIC)
+					&& ((ExecutableElement) member).getParameters().isEmpty()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private TypeMirror elementType(TypeMirror collectionType) {
+
+		if (collectionType.getKind() == TypeKind.DECLARED) {
+			List<? extends TypeMirror> arguments = ((DeclaredType) collectionType).getTypeArguments();
+			if (arguments.size() == 1 && arguments.get(0).getKind() == TypeKind.DECLARED) {
+				return arguments.get(0);
+			}
+		}
+
+		return this.elements.getTypeElement(Object.class.getName()).asType();
+	}
+
+	private boolean isCollection(TypeMirror type) {
+		TypeMirror collection = this.elements.getTypeElement("java.util.Collection").asType();
+		return this.types.isAssignable(type, this.types.erasure(collection));
+	}
+
+	private boolean isAssignable(TypeMirror from, TypeMirror to) {
+		TypeMirror target = to.getKind() == TypeKind.TYPEVAR || to.getKind() == TypeKind.WILDCARD
+				? this.types.erasure(to)
+				: to;
+		return this.types.isAssignable(this.types.erasure(from), this.types.erasure(target));
+	}
+
+	private boolean isStringLike(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		return this.isType(erasure, String.class.getName()) || this.isType(erasure, Object.class.getName())
+				|| this.isType(erasure, CharSequence.class.getName());
+	}
+
+	private boolean isType(TypeMirror type, String name) {
+		return type.getKind() == TypeKind.DECLARED && ((TypeElement) ((DeclaredType) this.types.erasure(type))
+				.asElement()).getQualifiedName().contentEquals(name);
+	}
+
+	private TypeMirror unbox(TypeMirror type) {
+
+		if (type.getKind().isPrimitive()) {
+			return type;
+		}
+
+		try {
+			return this.types.unboxedType(type);
+		} catch (IllegalArgumentException e) {
+			return type;
+		}
+	}
+
+	private String typeName(TypeMirror type) {
+		TypeMirror erasure = this.types.erasure(type);
+		if (erasure.getKind() == TypeKind.DECLARED) {
+			return ((TypeElement) ((DeclaredType) erasure).asElement()).getQualifiedName().toString();
+		}
+		return erasure.toString();
+	}
+
+	private void line(String line) {
+		this.body.append("\t\t").append(line).append('\n');
+	}
+
+	private String generate(String builderName) {
+
+		int dot = builderName.lastIndexOf('.');
+		String packageName = dot < 0 ? null : builderName.substring(0, dot);
+		String simpleName = builderName.substring(dot + 1);
+
+		StringBuilder source = new StringBuilder();
+
+		if (packageName != null) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+
+		source.append("/**\n");
+		source.append(" * Generated by the IoCFX FXML compiler. Do not edit.\n");
+		source.append(" */\n");
+		source.append("public final class ").append(simpleName).append(" implements net.bbmsoft.iocfx.FxmlBuilder {\n\n");
+		source.append("\t@Override\n");
+		source.append("\t@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+		source.append("\tpublic Object build(net.bbmsoft.iocfx.FxmlBuilder.Context context) throws java.io.IOException {\n");
+		source.append(this.body);
+		source.append("\t}\n");
+		source.append("}\n");
+
+		return source.toString();
+	}
+
+	private static boolean isFx(Node node) {
+		String namespace = node.getNamespaceURI();
+		return namespace != null ? namespace.startsWith(FX_NAMESPACE) : FX_PREFIX.equals(node.getPrefix());
+	}
+
+	private static Attr fxAttribute(org.w3c.dom.Element element, String name) {
+		NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Attr attribute = (Attr) attributes.item(i);
+			if (isFx(attribute) && name.equals(attribute.getLocalName())) {
+				return attribute;
+			}
+		}
+		return null;
+	}
+
+	private static List<org.w3c.dom.Element> childElements(org.w3c.dom.Element element) {
+		List<org.w3c.dom.Element> children = new ArrayList<>();
+		NodeList nodes = element.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+				children.add((org.w3c.dom.Element) nodes.item(i));
+			}
+		}
+		return children;
+	}
+
+	private static boolean hasText(org.w3c.dom.Element element) {
+		NodeList nodes = element.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Node node = nodes.item(i);
+			if ((node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE)
+					&& !node.getNodeValue().trim().isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isInstanceName(String name) {
+		String lastSegment = name.substring(name.lastIndexOf('.') + 1);
+		return !lastSegment.isEmpty() && Character.isUpperCase(lastSegment.charAt(0));
+	}
+
+	private static boolean isInstancePropertyName(String name) {
+		return !name.contains(".") && !isInstanceName(name);
+	}
+
+	private static boolean isStaticPropertyName(String name) {
+		return name.contains(".") && !isInstanceName(name);
+	}
+
+	private static boolean isJavaIdentifier(String name) {
+		if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < name.length(); i++) {
+			if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static String toAllCaps(String value) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (Character.isUpperCase(c) && i > 0) {
+				sb.append('_');
+			}
+			sb.append(Character.toUpperCase(c));
+		}
+		return sb.toString();
+	}
+
+	private static String defaultValue(TypeMirror type) {
+		switch (type.getKind()) {
+		case BOOLEAN:
+			return "false";
+		case CHAR:
+			return "'\\0'";
+		case BYTE:
+			return "(byte) 0";
+		case SHORT:
+			return "(short) 0";
+		case INT:
+			return "0";
+		case LONG:
+			return "0L";
+		case FLOAT:
+			return "0f";
+		case DOUBLE:
+			return "0.0";
+		default:
+			return "null";
+		}
+	}
+
+	private static String doubleLiteral(double value) {
+		if (Double.isNaN(value)) {
+			return "Double.NaN";
+		}
+		if (Double.isInfinite(value)) {
+			return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+		}
+		return Double.toString(value);
+	}
+
+	private static String floatLiteral(float value) {
+		if (Float.isNaN(value)) {
+			return "Float.NaN";
+		}
+		if (Float.isInfinite(value)) {
+			return value > 0 ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+		}
+		return Float.toString(value) + "f";
+	}
+
+	private static String charLiteral(char c) {
+		return "'" + escape(String.valueOf(c), '\'') + "'";
+	}
+
+	private static String literal(String value) {
+		return "\"" + escape(value, '"') + "\"";
+	}
+
+	private static String escape(String value, char quote) {
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == quote || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else if (c == '\r') {
+				sb.append("\\r");
+			} else if (c == '\t') {
+				sb.append("\\t");
+			} else if (c < 0x20 || c > 0x7e) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+}
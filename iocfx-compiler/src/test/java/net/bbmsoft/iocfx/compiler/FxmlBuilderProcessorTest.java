@@ -0,0 +1,481 @@
+package net.bbmsoft.iocfx.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.layout.GridPane;
+import net.bbmsoft.iocfx.Fxml;
+import net.bbmsoft.iocfx.FxmlBuilder;
+import net.bbmsoft.iocfx.fxml.impl.CompiledFxmlLoader;
+
+/**
+ * Compiles FXML files with the {@link FxmlBuilderProcessor} and checks that the
+ * generated builders, run by the {@link CompiledFxmlLoader}, create the same
+ * objects as an {@link FXMLLoader}.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public class FxmlBuilderProcessorTest {
+
+	private static final String HOLDER = "package test;\n" //
+			+ "import java.util.ArrayList;\n" //
+			+ "import java.util.List;\n" //
+			+ "import javafx.collections.FXCollections;\n" //
+			+ "import javafx.collections.ObservableList;\n" //
+			+ "public class Holder<T> {\n" //
+			+ "	private final List<String> children = new ArrayList<>();\n" //
+			+ "	private ObservableList<T> items = FXCollections.observableArrayList();\n" //
+			+ "	public ObservableList<T> getItems() { return this.items; }\n" //
+			+ "	public void setItems(ObservableList<T> items) { this.items = items; }\n" //
+			+ "	public List<String> getChildren() { return this.children; }\n" //
+			+ "	@Override public String toString() { return \"items=\" + this.items + \", children=\" + this.children; }\n" //
+			+ "}\n";
+
+	private static final String BAG = "package test;\n" //
+			+ "import java.util.ArrayList;\n" //
+			+ "import java.util.List;\n" //
+			+ "public class Bag {\n" //
+			+ "	private final List<Object> children = new ArrayList<>();\n" //
+			+ "	public List<Object> getChildren() { return this.children; }\n" //
+			+ "	@Override public String toString() { return this.children.toString(); }\n" //
+			+ "}\n";
+
+	private static final String VALUES = "package test;\n" //
+			+ "import javafx.geometry.Pos;\n" //
+			+ "import javafx.scene.paint.Paint;\n" //
+			+ "public class Values {\n" //
+			+ "	private Pos first, second;\n" //
+			+ "	private Paint fill;\n" //
+			+ "	private int count;\n" //
+			+ "	private double ratio;\n" //
+			+ "	private String escaped, resource, location;\n" //
+			+ "	public Pos getFirst() { return this.first; }\n" //
+			+ "	public void setFirst(Pos first) { this.first = first; }\n" //
+			+ "	public Pos getSecond() { return this.second; }\n" //
+			+ "	public void setSecond(Pos second) { this.second = second; }\n" //
+			+ "	public Paint getFill() { return this.fill; }\n" //
+			+ "	public void setFill(Paint fill) { this.fill = fill; }\n" //
+			+ "	public int getCount() { return this.count; }\n" //
+			+ "	public void setCount(int count) { this.count = count; }\n" //
+			+ "	public double getRatio() { return this.ratio; }\n" //
+			+ "	public void setRatio(double ratio) { this.ratio = ratio; }\n" //
+			+ "	public String getEscaped() { return this.escaped; }\n" //
+			+ "	public void setEscaped(String escaped) { this.escaped = escaped; }\n" //
+			+ "	public String getResource() { return this.resource; }\n" //
+			+ "	public void setResource(String resource) { this.resource = resource; }\n" //
+			+ "	public String getLocation() { return this.location; }\n" //
+			+ "	public void setLocation(String location) { this.location = location; }\n" //
+			+ "	@Override public String toString() {\n" //
+			+ "		String file = this.location.startsWith(\"file:\") ? this.location.substring(this.location.lastIndexOf(\"/test/\")) : this.location;\n" //
+			+ "		return \"first=\" + this.first + \", second=\" + this.second + \", fill=\" + this.fill + \", count=\" + this.count\n" //
+			+ "				+ \", ratio=\" + this.ratio + \", escaped=\" + this.escaped + \", resource=\" + this.resource + \", location=\" + file;\n" //
+			+ "	}\n" //
+			+ "}\n";
+
+	private static final String POINT = "package test;\n" //
+			+ "import javafx.beans.NamedArg;\n" //
+			+ "public class Point {\n" //
+			+ "	private final String name;\n" //
+			+ "	private final double x, y;\n" //
+			+ "	public Point(@NamedArg(\"name\") String name, @NamedArg(\"x\") double x,\n" //
+			+ "			@NamedArg(value = \"y\", defaultValue = \"7\") double y) {\n" //
+			+ "		this.name = name;\n" //
+			+ "		this.x = x;\n" //
+			+ "		this.y = y;\n" //
+			+ "	}\n" //
+			+ "	public String getName() { return this.name; }\n" //
+			+ "	public double getX() { return this.x; }\n" //
+			+ "	public double getY() { return this.y; }\n" //
+			+ "	@Override public String toString() { return this.name + \"(\" + this.x + \", \" + this.y + \")\"; }\n" //
+			+ "}\n";
+
+	private static final String TRIGGER = "package test;\n" //
+			+ "import java.util.ArrayList;\n" //
+			+ "import java.util.List;\n" //
+			+ "import javafx.event.ActionEvent;\n" //
+			+ "import javafx.event.EventHandler;\n" //
+			+ "public class Trigger {\n" //
+			+ "	private final List<String> log = new ArrayList<>();\n" //
+			+ "	private EventHandler<ActionEvent> onAction;\n" //
+			+ "	public EventHandler<ActionEvent> getOnAction() { return this.onAction; }\n" //
+			+ "	public void setOnAction(EventHandler<ActionEvent> onAction) { this.onAction = onAction; }\n" //
+			+ "	public void fire() { this.onAction.handle(new ActionEvent(this, null)); }\n" //
+			+ "	public void log(String entry) { this.log.add(entry); }\n" //
+			+ "	@Override public String toString() { return this.log.toString(); }\n" //
+			+ "}\n";
+
+	private static final String CONTROLLER = "package test;\n" //
+			+ "import java.net.URL;\n" //
+			+ "import javafx.fxml.FXML;\n" //
+			+ "public class HolderController {\n" //
+			+ "	@FXML private Holder<String> holder;\n" //
+			+ "	@FXML private String first;\n" //
+			+ "	public String second;\n" //
+			+ "	private String third;\n" //
+			+ "	@FXML private URL location;\n" //
+			+ "	@FXML private void initialize() {\n" //
+			+ "		this.holder.getChildren().add(\"initialized with \" + this.first + \", \" + this.second + \", \" + this.third\n" //
+			+ "				+ \" from \" + this.location.getPath().substring(this.location.getPath().lastIndexOf('/') + 1));\n" //
+			+ "	}\n" //
+			+ "}\n";
+
+	private static final String MISMATCHED_CONTROLLER = "package test;\n" //
+			+ "import javafx.fxml.FXML;\n" //
+			+ "public class HolderController {\n" //
+			+ "	@FXML private Integer first;\n" //
+			+ "}\n";
+
+	private static final String VIEW = "package test;\n" //
+			+ "public class View implements net.bbmsoft.iocfx.Fxml {\n" //
+			+ "}\n";
+
+	private static final String CONTROLLER_VIEW = "package test;\n" //
+			+ "public class View implements net.bbmsoft.iocfx.Fxml.Controller {\n" //
+			+ "}\n";
+
+	private static final String FXML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+			+ "<?import java.lang.*?>\n" //
+			+ "<?import javafx.collections.FXCollections?>\n" //
+			+ "<?import javafx.scene.layout.*?>\n" //
+			+ "<?import test.*?>\n";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void listPropertiesAreSetLikeTheFxmlLoaderDoes() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Holder xmlns:fx=\"http://javafx.com/fxml/1\">\n" //
+				+ "	<items>\n" //
+				+ "		<FXCollections fx:factory=\"observableArrayList\">\n" //
+				+ "			<String fx:value=\"one\" />\n" //
+				+ "			<String fx:value=\"two\" />\n" //
+				+ "		</FXCollections>\n" //
+				+ "	</items>\n" //
+				+ "	<children>\n" //
+				+ "		<String fx:value=\"three\" />\n" //
+				+ "		<String fx:value=\"four\" />\n" //
+				+ "	</children>\n" //
+				+ "</Holder>\n";
+
+		this.assertBuildsLikeFxmlLoader("items=[one, two], children=[three, four]", String::valueOf, fxml, VIEW);
+	}
+
+	@Test
+	public void attributesAreCoercedLikeTheFxmlLoaderDoes() throws Exception {
+
+		String view = "package test;\n" //
+				+ "public class View implements net.bbmsoft.iocfx.Fxml.Resources {\n" //
+				+ "	@Override public java.util.ResourceBundle getResources() {\n" //
+				+ "		return new java.util.ListResourceBundle() {\n" //
+				+ "			@Override protected Object[][] getContents() { return new Object[][] { { \"greeting\", \"Hello\" } }; }\n" //
+				+ "		};\n" //
+				+ "	}\n" //
+				+ "}\n";
+
+		String fxml = FXML_HEADER //
+				+ "<Values xmlns:fx=\"http://javafx.com/fxml/1\" first=\"topLeft\" second=\"CENTER\" fill=\"red\"\n" //
+				+ "	count=\"42\" ratio=\"0.5\" escaped=\"\\%greeting\" resource=\"%greeting\" location=\"@image.png\" />\n";
+
+		this.assertBuildsLikeFxmlLoader("first=TOP_LEFT, second=CENTER, fill=0xff0000ff, count=42, ratio=0.5, "
+				+ "escaped=%greeting, resource=Hello, location=/test/image.png", String::valueOf, fxml, view);
+	}
+
+	@Test
+	public void staticPropertiesAreSetLikeTheFxmlLoaderDoes() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<GridPane xmlns:fx=\"http://javafx.com/fxml/1\">\n" //
+				+ "	<children>\n" //
+				+ "		<Pane GridPane.rowIndex=\"1\" GridPane.columnIndex=\"2\" />\n" //
+				+ "		<Pane>\n" //
+				+ "			<GridPane.rowIndex>3</GridPane.rowIndex>\n" //
+				+ "		</Pane>\n" //
+				+ "	</children>\n" //
+				+ "</GridPane>\n";
+
+		Function<Object, String> describe = root -> ((GridPane) root).getChildren().stream()
+				.map(child -> GridPane.getRowIndex(child) + "/" + GridPane.getColumnIndex(child))
+				.collect(Collectors.joining(", "));
+
+		this.assertBuildsLikeFxmlLoader("1/2, 3/null", describe, fxml, VIEW);
+	}
+
+	@Test
+	public void namedArgConstructorsAreUsedLikeTheFxmlLoaderDoes() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Bag xmlns:fx=\"http://javafx.com/fxml/1\">\n" //
+				+ "	<children>\n" //
+				+ "		<Point name=\"origin\" x=\"3\" />\n" //
+				+ "		<Point name=\"corner\" x=\"1\" y=\"2\" />\n" //
+				+ "	</children>\n" //
+				+ "</Bag>\n";
+
+		this.assertBuildsLikeFxmlLoader("[origin(3.0, 7.0), corner(1.0, 2.0)]", String::valueOf, fxml, VIEW);
+	}
+
+	@Test
+	public void definitionsConstantsAndFactoriesAreResolvedLikeTheFxmlLoaderDoes() throws Exception {
+
+		String view = "package test;\n" //
+				+ "import javafx.fxml.FXML;\n" //
+				+ "public class View implements net.bbmsoft.iocfx.Fxml.Controller {\n" //
+				+ "	@FXML private Bag bag;\n" //
+				+ "	@FXML private String greeting;\n" //
+				+ "	@FXML private void initialize() { this.bag.getChildren().add(this.greeting); }\n" //
+				+ "}\n";
+
+		String fxml = FXML_HEADER //
+				+ "<Bag xmlns:fx=\"http://javafx.com/fxml/1\" fx:id=\"bag\">\n" //
+				+ "	<fx:define>\n" //
+				+ "		<String fx:id=\"greeting\" fx:value=\"hello\" />\n" //
+				+ "	</fx:define>\n" //
+				+ "	<children>\n" //
+				+ "		<Integer fx:constant=\"MAX_VALUE\" />\n" //
+				+ "		<FXCollections fx:factory=\"emptyObservableList\" />\n" //
+				+ "	</children>\n" //
+				+ "</Bag>\n";
+
+		this.assertBuildsLikeFxmlLoader("[2147483647, [], hello]", String::valueOf, fxml, view);
+	}
+
+	@Test
+	public void controllersAreInjectedAndInitializedLikeTheFxmlLoaderDoes() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Holder xmlns:fx=\"http://javafx.com/fxml/1\" fx:id=\"holder\" fx:controller=\"test.HolderController\">\n" //
+				+ "	<children>\n" //
+				+ "		<String fx:id=\"first\" fx:value=\"one\" />\n" //
+				+ "		<String fx:id=\"second\" fx:value=\"two\" />\n" //
+				+ "		<String fx:id=\"third\" fx:value=\"three\" />\n" //
+				+ "	</children>\n" //
+				+ "</Holder>\n";
+
+		this.assertBuildsLikeFxmlLoader(
+				"items=[], children=[one, two, three, initialized with one, two, null from View.fxml]",
+				String::valueOf, fxml, VIEW, CONTROLLER);
+	}
+
+	@Test
+	public void eventHandlersCallTheControllerLikeTheFxmlLoaderDoes() throws Exception {
+
+		String view = "package test;\n" //
+				+ "import javafx.event.ActionEvent;\n" //
+				+ "import javafx.fxml.FXML;\n" //
+				+ "public class View implements net.bbmsoft.iocfx.Fxml.Controller {\n" //
+				+ "	@FXML private Trigger second;\n" //
+				+ "	@FXML private void fired(ActionEvent event) { ((Trigger) event.getSource()).log(\"fired \" + event.getEventType()); }\n" //
+				+ "	@FXML private void firedWithoutEvent() { this.second.log(\"fired without event\"); }\n" //
+				+ "}\n";
+
+		String fxml = FXML_HEADER //
+				+ "<Bag xmlns:fx=\"http://javafx.com/fxml/1\">\n" //
+				+ "	<children>\n" //
+				+ "		<Trigger onAction=\"#fired\" />\n" //
+				+ "		<Trigger fx:id=\"second\" onAction=\"#firedWithoutEvent\" />\n" //
+				+ "	</children>\n" //
+				+ "</Bag>\n";
+
+		Function<Object, String> describe = root -> {
+			for (Object trigger : ((Iterable<?>) invoke(root, "getChildren"))) {
+				invoke(trigger, "fire");
+			}
+			return root.toString();
+		};
+
+		this.assertBuildsLikeFxmlLoader("[[fired ACTION], [fired without event]]", describe, fxml, view);
+	}
+
+	@Test
+	public void controllerFieldsOfTheWrongTypeFailTheLoadLikeTheFxmlLoaderDoes() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Holder xmlns:fx=\"http://javafx.com/fxml/1\" fx:controller=\"test.HolderController\">\n" //
+				+ "	<children>\n" //
+				+ "		<String fx:id=\"first\" fx:value=\"one\" />\n" //
+				+ "	</children>\n" //
+				+ "</Holder>\n";
+
+		this.assertFailsLikeFxmlLoader(fxml, VIEW, MISMATCHED_CONTROLLER);
+	}
+
+	@Test
+	public void controllersMustNotBeSpecifiedTwiceLikeTheFxmlLoaderRequires() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Holder xmlns:fx=\"http://javafx.com/fxml/1\" fx:controller=\"test.HolderController\" />\n";
+
+		this.assertFailsLikeFxmlLoader(fxml, CONTROLLER_VIEW, CONTROLLER);
+	}
+
+	@Test
+	public void unsupportedFxmlIsLeftToTheFxmlLoader() throws Exception {
+
+		String fxml = FXML_HEADER //
+				+ "<Bag xmlns:fx=\"http://javafx.com/fxml/1\">\n" //
+				+ "	<fx:define>\n" //
+				+ "		<String fx:id=\"greeting\" fx:value=\"hello\" />\n" //
+				+ "	</fx:define>\n" //
+				+ "	<children>\n" //
+				+ "		<fx:reference source=\"greeting\" />\n" //
+				+ "	</children>\n" //
+				+ "</Bag>\n";
+
+		try (URLClassLoader classLoader = this.compile(fxml, VIEW)) {
+			assertNull(classLoader.getResource("test/View" + FxmlBuilder.CLASS_NAME_SUFFIX + ".class"));
+			assertEquals("[hello]", String.valueOf(loadWithFxmlLoader(classLoader)));
+		}
+	}
+
+	private void assertBuildsLikeFxmlLoader(String expected, Function<Object, String> describe, String fxml,
+			String... sources) throws Exception {
+
+		try (URLClassLoader classLoader = this.compile(fxml, sources)) {
+			assertEquals(expected, describe.apply(loadWithFxmlLoader(classLoader)));
+			assertEquals(expected, describe.apply(loadWithBuilder(classLoader)));
+		}
+	}
+
+	private void assertFailsLikeFxmlLoader(String fxml, String... sources) throws Exception {
+
+		try (URLClassLoader classLoader = this.compile(fxml, sources)) {
+
+			try {
+				loadWithFxmlLoader(classLoader);
+				fail("The FXMLLoader should have failed");
+			} catch (IOException e) {
+				// expected
+			}
+
+			try {
+				loadWithBuilder(classLoader);
+				fail("The builder should have failed");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Compiles the specified sources along with the model classes used by the
+	 * tests. The FXML file belongs to the class {@code test.View}, which has to be
+	 * among the sources.
+	 */
+	private URLClassLoader compile(String fxml, String... sources) throws IOException {
+
+		Path sourceDir = this.tmp.newFolder("src").toPath();
+		Path classes = this.tmp.newFolder("classes").toPath();
+
+		List<Path> files = new ArrayList<>();
+		for (String source : concat(sources, HOLDER, BAG, VALUES, POINT, TRIGGER)) {
+			Path file = sourceDir.resolve("test/" + className(source) + ".java");
+			write(file, source);
+			files.add(file);
+		}
+
+		// resources are copied to the class output before compilation
+		write(classes.resolve("test/View.fxml"), fxml);
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+				StandardCharsets.UTF_8)) {
+
+			Iterable<? extends JavaFileObject> units = fileManager
+					.getJavaFileObjects(files.stream().map(Path::toFile).toArray(java.io.File[]::new));
+
+			boolean success = compiler.getTask(null, fileManager, diagnostics,
+					Arrays.asList("-d", classes.toString(), "-classpath", System.getProperty("java.class.path"),
+							"-processor", FxmlBuilderProcessor.class.getName()),
+					null, units).call();
+
+			assertTrue(diagnostics.getDiagnostics().toString(), success);
+		}
+
+		return new URLClassLoader(new URL[] { classes.toUri().toURL() }, this.getClass().getClassLoader());
+	}
+
+	/**
+	 * Loads the FXML file the way IoCFX does when there is no builder for it.
+	 */
+	private static Object loadWithFxmlLoader(ClassLoader classLoader) throws Exception {
+
+		Fxml view = newView(classLoader);
+
+		FXMLLoader loader = new FXMLLoader(view.getLocation());
+		loader.setClassLoader(classLoader);
+		if (view instanceof Fxml.Resources) {
+			loader.setResources(((Fxml.Resources) view).getResources());
+		}
+		if (view instanceof Fxml.Controller) {
+			loader.setController(view);
+		}
+
+		return loader.load();
+	}
+
+	private static Object loadWithBuilder(ClassLoader classLoader) throws Exception {
+
+		Class<?> builderClass = classLoader.loadClass("test.View" + FxmlBuilder.CLASS_NAME_SUFFIX);
+		FxmlBuilder builder = (FxmlBuilder) builderClass.getDeclaredConstructor().newInstance();
+
+		return new CompiledFxmlLoader().load(builder, newView(classLoader));
+	}
+
+	private static Fxml newView(ClassLoader classLoader) throws ReflectiveOperationException {
+		return (Fxml) classLoader.loadClass("test.View").getDeclaredConstructor().newInstance();
+	}
+
+	private static Object invoke(Object target, String method) {
+		try {
+			return target.getClass().getMethod(method).invoke(target);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String className(String source) {
+		String declaration = source.substring(source.indexOf("public class ") + "public class ".length());
+		return declaration.substring(0, declaration.indexOf(' ')).replaceAll("<.*", "");
+	}
+
+	private static List<String> concat(String[] sources, String... models) {
+		List<String> all = new ArrayList<>(Arrays.asList(sources));
+		all.addAll(Arrays.asList(models));
+		return all;
+	}
+
+	private static void write(Path file, String content) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+}
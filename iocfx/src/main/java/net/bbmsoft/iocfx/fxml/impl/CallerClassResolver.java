@@ -0,0 +1,39 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.util.function.Function;
+
+import org.osgi.framework.Bundle;
+
+/**
+ * Walks the bundles of the classes on the current call stack and tries to load
+ * a class from each of them until one succeeds.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+interface CallerClassResolver {
+
+	/**
+	 * Tries to load a class from the bundles found on the current call stack,
+	 * starting with the innermost frame. Every bundle is tried at most once.
+	 * 
+	 * @param loader
+	 *            loads the class from a bundle, returning {@code null} if the
+	 *            bundle cannot load it
+	 * @return the first class successfully loaded or {@code null} if none of the
+	 *         bundles could load it
+	 */
+	public Class<?> resolve(Function<Bundle, Class<?>> loader);
+
+	/**
+	 * Creates the best resolver available on the current JVM. That is a
+	 * {@code StackWalker} based resolver on Java 9 and later and a
+	 * {@code SecurityManager} based one on Java 8.
+	 * 
+	 * @return a resolver
+	 */
+	public static CallerClassResolver create() {
+		return StackWalkerClassResolver.isAvailable() ? new StackWalkerClassResolver()
+				: new SecurityManagerClassResolver();
+	}
+}
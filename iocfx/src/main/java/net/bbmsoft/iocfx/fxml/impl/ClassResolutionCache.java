@@ -0,0 +1,105 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+/**
+ * Remembers the outcome of loading a class from a bundle, both successful and
+ * unsuccessful, so that every class name is only resolved once per bundle
+ * revision. Failed attempts are particularly worth caching since they are
+ * expensive and common when FXML imports are resolved.
+ * <p>
+ * All results for a bundle are discarded as soon as it gets updated, refreshed
+ * or uninstalled.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = ClassResolutionCache.class)
+public class ClassResolutionCache implements BundleListener {
+
+	private static final Object NOT_FOUND = new Object();
+
+	private final Map<Long, Map<String, Object>> bundles;
+
+	private BundleContext ctx;
+
+	public ClassResolutionCache() {
+		this.bundles = new ConcurrentHashMap<>();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		this.ctx = ctx;
+		ctx.addBundleListener(this);
+	}
+
+	@Deactivate
+	public void deactivate() {
+		this.ctx.removeBundleListener(this);
+		this.bundles.clear();
+	}
+
+	/**
+	 * Loads a class from a bundle, using a previously cached result if available.
+	 * 
+	 * @param bundle
+	 *            the bundle to load the class from
+	 * @param name
+	 *            the fully qualified name of the class
+	 * @return the class or {@code null} if the bundle cannot load it
+	 */
+	public Class<?> loadClass(Bundle bundle, String name) {
+
+		Map<String, Object> classes = this.bundles.computeIfAbsent(bundle.getBundleId(),
+				id -> new ConcurrentHashMap<>());
+
+		Object result = classes.get(name);
+
+		if (result == null) {
+			result = resolve(bundle, name);
+			if (result != NOT_FOUND || isResolved(bundle)) {
+				classes.put(name, result);
+			}
+		}
+
+		return result != NOT_FOUND ? (Class<?>) result : null;
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+
+		switch (event.getType()) {
+		case BundleEvent.RESOLVED:
+		case BundleEvent.UPDATED:
+		case BundleEvent.UNRESOLVED:
+		case BundleEvent.UNINSTALLED:
+			this.bundles.remove(event.getBundle().getBundleId());
+			break;
+		default:
+			break;
+		}
+	}
+
+	private Object resolve(Bundle bundle, String name) {
+
+		try {
+			return bundle.loadClass(name);
+		} catch (ClassNotFoundException | IllegalStateException e) {
+			return NOT_FOUND;
+		}
+	}
+
+	private boolean isResolved(Bundle bundle) {
+		// failures of bundles that are not (or no longer) resolved are not final
+		return (bundle.getState() & (Bundle.INSTALLED | Bundle.UNINSTALLED)) == 0;
+	}
+}
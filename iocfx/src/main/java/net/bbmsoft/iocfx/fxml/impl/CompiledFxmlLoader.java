@@ -0,0 +1,301 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+import org.osgi.framework.Bundle;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.fxml.LoadException;
+import net.bbmsoft.iocfx.Fxml;
+import net.bbmsoft.iocfx.FxmlBuilder;
+
+/**
+ * Loads {@link Fxml} components using the {@link FxmlBuilder} generated for
+ * their FXML file at build time, if there is one. Controllers are treated the
+ * same way {@code FXMLLoader} treats them: objects with an {@code fx:id} are
+ * injected into public or {@link FXML @FXML} annotated fields of the same name
+ * and the controller's {@code initialize} method is called afterwards.
+ * <p>
+ * Whether a bundle contains a builder for a given location is cached in the
+ * {@link ClassResolutionCache}, so looking for builders that don't exist is
+ * cheap.
+ *
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = CompiledFxmlLoader.class)
+public class CompiledFxmlLoader {
+
+	@Reference
+	private ClassResolutionCache cache;
+
+	/**
+	 * Finds the builder generated for the specified location.
+	 *
+	 * @param location
+	 *            the location of an FXML file
+	 * @param bundle
+	 *            the bundle containing the FXML file
+	 * @return the builder or {@code null} if the FXML file has not been compiled
+	 */
+	public FxmlBuilder getBuilder(URL location, Bundle bundle) {
+
+		if (location == null || bundle == null) {
+			return null;
+		}
+
+		String path = getResourcePath(location);
+		if (path == null || !path.endsWith(".fxml")) {
+			return null;
+		}
+
+		Class<?> builderClass = this.cache.loadClass(bundle, FxmlBuilder.getBuilderClassName(path));
+		if (builderClass == null || !FxmlBuilder.class.isAssignableFrom(builderClass)) {
+			return null;
+		}
+
+		try {
+			return (FxmlBuilder) builderClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the object graph of an {@link Fxml} component.
+	 *
+	 * @param builder
+	 *            the builder generated for the component's FXML file
+	 * @param fxml
+	 *            the component
+	 * @return the root object
+	 * @throws IOException
+	 *             if the object graph could not be built
+	 */
+	public Object load(FxmlBuilder builder, Fxml fxml) throws IOException {
+
+		URL location = fxml.getLocation();
+		ResourceBundle resources = fxml instanceof Fxml.Resources ? ((Fxml.Resources) fxml).getResources() : null;
+		Object root = fxml instanceof Fxml.Root ? fxml : null;
+		Object controller = fxml instanceof Fxml.Controller ? fxml : null;
+
+		BuildContext context = new BuildContext(location, resources, root, controller);
+
+		Object object;
+		try {
+			object = builder.build(context);
+		} catch (RuntimeException e) {
+			throw new LoadException(e);
+		}
+
+		if (context.controller != null) {
+			initializeController(context);
+		}
+
+		return object;
+	}
+
+	private void initializeController(BuildContext context) throws LoadException {
+
+		Object controller = context.controller;
+
+		Map<String, Object> values = new HashMap<>(context.namespace);
+		values.put("location", context.location);
+		values.put("resources", context.resources);
+
+		try {
+
+			for (Class<?> type = controller.getClass(); type != Object.class; type = type.getSuperclass()) {
+				for (Field field : type.getDeclaredFields()) {
+					if (isInjectable(field) && values.containsKey(field.getName())) {
+						inject(controller, field, values.get(field.getName()));
+					}
+				}
+			}
+
+			if (controller instanceof Initializable) {
+				((Initializable) controller).initialize(context.location, context.resources);
+				return;
+			}
+
+			Method initialize = findMethod(controller.getClass(), "initialize", false);
+			if (initialize != null) {
+				initialize.invoke(controller);
+			}
+
+		} catch (IllegalAccessException e) {
+			throw new LoadException(e);
+		} catch (InvocationTargetException e) {
+			throw new LoadException(e.getCause());
+		}
+	}
+
+	private static void inject(Object controller, Field field, Object value)
+			throws IllegalAccessException, LoadException {
+
+		field.setAccessible(true);
+
+		try {
+			field.set(controller, value);
+		} catch (IllegalArgumentException e) {
+			// same as the FXMLLoader, which fails the load rather than skipping the field
+			throw new LoadException("Cannot inject " + (value != null ? value.getClass().getName() : "null")
+					+ " into field " + field.getName() + " of type " + field.getType().getName() + ".", e);
+		}
+	}
+
+	private static boolean isInjectable(Field field) {
+		int modifiers = field.getModifiers();
+		return !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+				&& (Modifier.isPublic(modifiers) || field.isAnnotationPresent(FXML.class));
+	}
+
+	private static Method findMethod(Class<?> type, String name, boolean eventHandler) {
+
+		for (Class<?> t = type; t != null && t != Object.class; t = t.getSuperclass()) {
+			for (Method method : t.getDeclaredMethods()) {
+				if (!method.getName().equals(name) || Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				if (!Modifier.isPublic(method.getModifiers()) && !method.isAnnotationPresent(FXML.class)) {
+					continue;
+				}
+				Class<?>[] parameters = method.getParameterTypes();
+				if (parameters.length == 0
+						|| eventHandler && parameters.length == 1 && Event.class.isAssignableFrom(parameters[0])) {
+					method.setAccessible(true);
+					return method;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static String getResourcePath(URL location) {
+
+		String path = location.getPath();
+
+		// jar:file:/some.jar!/com/example/View.fxml
+		int separator = path.indexOf("!/");
+		if (separator >= 0) {
+			path = path.substring(separator + 1);
+		}
+
+		return path.isEmpty() ? null : path;
+	}
+
+	private static class BuildContext implements FxmlBuilder.Context {
+
+		private final URL location;
+		private final ResourceBundle resources;
+		private final Object root;
+		private final Map<String, Object> namespace;
+
+		private Object controller;
+
+		public BuildContext(URL location, ResourceBundle resources, Object root, Object controller) {
+			this.location = location;
+			this.resources = resources;
+			this.root = root;
+			this.controller = controller;
+			this.namespace = new HashMap<>();
+		}
+
+		@Override
+		public URL getLocation() {
+			return this.location;
+		}
+
+		@Override
+		public ResourceBundle getResources() {
+			return this.resources;
+		}
+
+		@Override
+		public Object getRoot() {
+			return this.root;
+		}
+
+		@Override
+		public Object getController() {
+			return this.controller;
+		}
+
+		@Override
+		public void setController(Object controller) {
+			this.controller = controller;
+		}
+
+		@Override
+		public Map<String, Object> getNamespace() {
+			return this.namespace;
+		}
+
+		@Override
+		public String resolve(String relativePath) {
+			try {
+				return new URL(this.location, relativePath).toExternalForm();
+			} catch (MalformedURLException e) {
+				throw new IllegalArgumentException("Invalid location: " + relativePath, e);
+			}
+		}
+
+		@Override
+		public String getResource(String key) {
+			if (this.resources == null) {
+				throw new MissingResourceException("No resources specified.", null, key);
+			}
+			return this.resources.getString(key);
+		}
+
+		@Override
+		public <T extends Event> EventHandler<T> getEventHandler(String methodName) {
+
+			Object controller = this.controller;
+
+			if (controller == null) {
+				throw new IllegalStateException("No controller specified.");
+			}
+
+			Method method = findMethod(controller.getClass(), methodName, true);
+
+			if (method == null) {
+				throw new IllegalStateException("Controller method \"" + methodName + "\" not found.");
+			}
+
+			boolean passEvent = method.getParameterCount() == 1;
+			Class<?> eventType = passEvent ? method.getParameterTypes()[0] : null;
+
+			return event -> {
+				try {
+					if (!passEvent) {
+						method.invoke(controller);
+					} else if (eventType.isInstance(event)) {
+						method.invoke(controller, event);
+					}
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				} catch (InvocationTargetException e) {
+					Throwable cause = e.getCause();
+					throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+				}
+			};
+		}
+	}
+}
@@ -1,11 +1,31 @@
 package net.bbmsoft.iocfx.fxml.impl;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.ResourceBundle;
 import java.util.Set;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkUtil;
 import org.osgi.service.component.ComponentServiceObjects;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -21,165 +41,543 @@ import javafx.scene.layout.Region;
 import javafx.stage.Stage;
 import net.bbmsoft.iocfx.Fxml;
 import net.bbmsoft.iocfx.Fxml.Application;
+import net.bbmsoft.iocfx.FxmlBuilder;
+import net.bbmsoft.iocfx.FxmlHandle;
+import net.bbmsoft.iocfx.FxmlLoadMetrics;
 import net.bbmsoft.iocfx.Platform;
+import net.bbmsoft.iocfx.PlatformMetrics;
 import net.bbmsoft.iocfx.StageService;
 import net.bbmsoft.iocfx.StageService.ExitPolicy;
+import net.bbmsoft.iocfx.impl.BackgroundExecutor;
+import net.bbmsoft.iocfx.impl.FrameworkProperties;
+import net.bbmsoft.iocfx.impl.SceneGraphRegistry;
+import net.bbmsoft.iocfx.impl.StartupProfiler;
 import net.bbmsoft.iocfx.log.impl.MinLogger;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler.Priority;
+import net.bbmsoft.iocfx.platform.impl.FxThreadActivity;
 
 /**
  * Tracks and manages {@link Fxml} services. If a component publishes itself as
  * an {@link Fxml} service, this component will make sure its layout gets loaded
  * on the JavaFX Application thread as soon as the JavaFX Platform is available.
+ * <p>
+ * If the {@value #ASYNC_LOADING} framework property is set to {@code true},
+ * FXML files are parsed on a {@link BackgroundExecutor} worker thread instead
+ * and only the hand-off of the loaded object (passing it to a
+ * {@link Fxml.Consumer} or showing an {@link Fxml.Application} stage) happens on
+ * the JavaFX Application Thread. {@link Fxml.Controller Controllers} are always
+ * loaded on the JavaFX Application Thread, since their initialization code may
+ * rely on that.
+ * <p>
+ * Components that are bound within {@value #BATCH_WINDOW} milliseconds of each
+ * other are loaded as one batch: all of them are submitted to the JavaFX
+ * Application Thread together, reusing a pooled {@link FXMLLoader}, and
+ * {@link Fxml.Application Applications} are shown only after all other
+ * components of the batch have been loaded. Loading happens with
+ * {@link Priority#BACKGROUND background} priority, so a large batch is spread
+ * over several pulses instead of delaying more urgent updates.
+ * <p>
+ * If an {@link FxmlBuilder} has been generated for a component's FXML file at
+ * build time, it is used instead of an {@code FXMLLoader}.
+ * <p>
+ * {@link Fxml.Lazy} components are not loaded right away. Instead an
+ * {@link FxmlHandle} service is registered for each of them that loads them on
+ * demand. If the {@value #PREFETCH_LAZY} framework property is set to
+ * {@code true}, lazy components that have not been requested yet are loaded one
+ * at a time whenever the JavaFX Application Thread has nothing else to do.
+ * <p>
+ * Each component has at most one load in flight. It is cancelled if the
+ * component is unbound before it started and reused if the component is bound
+ * again in the meantime. How often either happens is published as
+ * {@link FxmlLoadMetrics}.
  * 
  * @author Michael Bachmann
  *
  */
-@Component
-public class FxmlLoaderComponent {
+@Component(immediate = true)
+public class FxmlLoaderComponent implements FxmlLoadMetrics {
+
+	public static final String ASYNC_LOADING = "net.bbmsoft.iocfx.fxml.async";
+	public static final String PREFETCH_LAZY = "net.bbmsoft.iocfx.fxml.lazyPrefetch";
+	public static final String BATCH_WINDOW = "net.bbmsoft.iocfx.fxml.batchWindowMillis";
+
+	private static final long PREFETCH_INTERVAL_MILLIS = 250;
 
 	private final Set<Fxml> fxmls;
+	private final Map<Fxml, LazyFxmlHandle> handles;
+	private final Queue<PendingLoad> pending;
+	private final Map<Fxml, PendingLoad> inFlight;
+	private final AtomicBoolean flushScheduled;
+	private final Map<Fxml, Object> roots;
+	private final Map<Fxml, StageService> stages;
+	private final LongAdder cancelledLoads;
+	private final LongAdder deduplicatedLoads;
 
 	@Reference
 	private Platform platform;
 
+	@Reference
+	private FxScheduler scheduler;
+
 	@Reference
 	private MinLogger log;
 
-	@Reference(scope = ReferenceScope.PROTOTYPE_REQUIRED)
-	private ComponentServiceObjects<FXMLLoader> loaderFactory;
+	@Reference
+	private FxmlLoaderPool loaders;
+
+	@Reference
+	private CompiledFxmlLoader compiledLoader;
 
 	@Reference(scope = ReferenceScope.PROTOTYPE_REQUIRED)
 	private ComponentServiceObjects<StageService> stageService;
 
-	private boolean active;
+	@Reference
+	private BackgroundExecutor executor;
+
+	@Reference
+	private FxmlTemplateCache templateCache;
+
+	@Reference
+	private FxThreadActivity activity;
+
+	@Reference
+	private PlatformMetrics metrics;
+
+	@Reference
+	private StartupProfiler profiler;
+
+	@Reference
+	private SceneGraphRegistry sceneGraph;
+
+	private BundleContext ctx;
+
+	private volatile boolean active;
+
+	private volatile boolean deactivated;
+
+	private boolean asyncLoading;
+
+	private long batchWindow;
+
+	private ScheduledFuture<?> prefetcher;
 
 	public FxmlLoaderComponent() {
-		this.fxmls = new HashSet<>();
+		this.fxmls = ConcurrentHashMap.newKeySet();
+		this.handles = new LinkedHashMap<>();
+		this.pending = new ConcurrentLinkedQueue<>();
+		this.inFlight = new ConcurrentHashMap<>();
+		this.flushScheduled = new AtomicBoolean();
+		this.roots = new ConcurrentHashMap<>();
+		this.stages = new ConcurrentHashMap<>();
+		this.cancelledLoads = new LongAdder();
+		this.deduplicatedLoads = new LongAdder();
 	}
 
 	@Activate
-	public synchronized void activate() {
+	public synchronized void activate(BundleContext ctx) {
 
+		this.ctx = ctx;
+		this.asyncLoading = FrameworkProperties.getBoolean(ctx, ASYNC_LOADING, false);
+		this.batchWindow = Math.max(0, FrameworkProperties.getLong(ctx, BATCH_WINDOW, 10));
 		this.active = true;
 
-		for (Fxml fxml : this.fxmls) {
-			loadOnFxThread(fxml);
+		// everything that has been bound so far is already waiting in the queue
+		this.scheduleFlush(0);
+
+		for (LazyFxmlHandle handle : this.handles.values()) {
+			handle.register(ctx);
+		}
+
+		if (FrameworkProperties.getBoolean(ctx, PREFETCH_LAZY, false)) {
+			this.prefetcher = this.executor.scheduleWithFixedDelay(this::prefetch, PREFETCH_INTERVAL_MILLIS,
+					TimeUnit.MILLISECONDS);
 		}
 	}
 
 	@Deactivate
 	public synchronized void deactivate() {
+
 		this.active = false;
+		this.deactivated = true;
+
+		if (this.prefetcher != null) {
+			this.prefetcher.cancel(false);
+			this.prefetcher = null;
+		}
+
+		this.handles.values().forEach(LazyFxmlHandle::unregister);
+		this.handles.clear();
 		this.fxmls.clear();
+		this.roots.clear();
+		this.stages.clear();
+
+		for (PendingLoad load; (load = this.pending.poll()) != null;) {
+			load.future.cancel(false);
+		}
+
+		this.inFlight.values().forEach(load -> load.future.cancel(false));
 	}
 
 	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxml(Fxml fxml) {
+	public void addFxml(Fxml fxml) {
+		this.register(fxml);
+	}
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
-		}
+	public void removeFxml(Fxml fxml) {
+		this.unregister(fxml);
 	}
 
-	public synchronized void removeFxml(Fxml fxml) {
-		this.fxmls.remove(fxml);
+	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+	public void addFxmlRoot(Fxml.Root fxml) {
+		this.register(fxml);
+	}
+
+	public void removeFxmlRoot(Fxml.Root fxml) {
+		this.unregister(fxml);
 	}
 
 	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxmlRoot(Fxml.Root fxml) {
+	public void addFxmlController(Fxml.Controller fxml) {
+		this.register(fxml);
+	}
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
-		}
+	public void removeFxmlController(Fxml.Controller fxml) {
+		this.unregister(fxml);
 	}
 
-	public synchronized void removeFxmlRoot(Fxml.Root fxml) {
-		this.fxmls.remove(fxml);
+	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+	public void addFxmlConsumer(Fxml.Consumer<?> fxml) {
+		this.register(fxml);
+	}
+
+	public void removeFxmlConsumer(Fxml.Consumer<?> fxml) {
+		this.unregister(fxml);
 	}
 
 	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxmlController(Fxml.Controller fxml) {
+	public void addFxmlApplication(Fxml.Application fxml) {
+		this.register(fxml);
+	}
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
-		}
+	public void removeFxmlApplication(Fxml.Application fxml) {
+		this.unregister(fxml);
 	}
 
-	public synchronized void removeFxmlController(Fxml.Controller fxml) {
-		this.fxmls.remove(fxml);
+	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+	public void addFxmlResources(Fxml.Resources fxml) {
+		this.register(fxml);
+	}
+
+	public void removeFxmlResources(Fxml.Resources fxml) {
+		this.unregister(fxml);
 	}
 
 	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxmlConsumer(Fxml.Consumer<?> fxml) {
+	public synchronized void addFxmlLazy(Fxml.Lazy fxml, Map<String, Object> properties) {
+
+		this.fxmls.add(fxml);
+
+		if (this.handles.containsKey(fxml)) {
+			return;
+		}
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
+		LazyFxmlHandle handle = new LazyFxmlHandle(fxml, properties.get(Constants.SERVICE_ID),
+				f -> this.scheduleLoad(f, 0));
+		this.handles.put(fxml, handle);
+
+		if (this.active) {
+			handle.register(this.ctx);
 		}
 	}
 
-	public synchronized void removeFxmlConsumer(Fxml.Consumer<?> fxml) {
-		this.fxmls.remove(fxml);
+	public synchronized void removeFxmlLazy(Fxml.Lazy fxml) {
+
+		this.unregister(fxml);
+
+		LazyFxmlHandle handle = this.handles.remove(fxml);
+		if (handle != null) {
+			handle.unregister();
+		}
 	}
 
-	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxmlApplication(Fxml.Application fxml) {
+	@Override
+	public long getCancelledLoads() {
+		return this.cancelledLoads.sum();
+	}
+
+	@Override
+	public long getDeduplicatedLoads() {
+		return this.deduplicatedLoads.sum();
+	}
+
+	private void register(Fxml fxml) {
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
+		// lazy components only get loaded once they are requested through their handle
+		if (this.fxmls.add(fxml) && !(fxml instanceof Fxml.Lazy)) {
+			scheduleLoad(fxml, this.batchWindow);
 		}
 	}
 
-	public synchronized void removeFxmlApplication(Fxml.Application fxml) {
+	private void unregister(Fxml fxml) {
+
 		this.fxmls.remove(fxml);
+
+		// a load that has not started yet is dropped once it is due, unless the
+		// component is bound again before that
+		PendingLoad load = this.inFlight.get(fxml);
+		if (load != null) {
+			load.remove();
+		}
+
+		// tear down whatever has been loaded for the component, so its scene graph
+		// doesn't outlive it
+		Object root = this.roots.remove(fxml);
+		StageService stageService = this.stages.remove(fxml);
+
+		if (root == null && stageService == null) {
+			return;
+		}
+
+		this.platform.runOnFxApplicationThread(() -> {
+			if (stageService != null) {
+				// closing the stage must not trigger its exit policy
+				stageService.setExitPolicy(ExitPolicy.DO_NOTHING_ON_STAGE_EXIT);
+				Stage stage = stageService.getStage();
+				stage.hide();
+				stage.setScene(null);
+				try {
+					this.stageService.ungetService(stageService);
+				} catch (IllegalStateException e) {
+					// this component is being deactivated, SCR releases the service itself
+				}
+			}
+			if (root != null) {
+				this.sceneGraph.release(root);
+			}
+		});
 	}
 
-	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addFxmlResources(Fxml.Resources fxml) {
+	private void prefetch() {
+
+		if (this.metrics.getQueueDepth() > 0) {
+			return;
+		}
 
-		if (this.fxmls.add(fxml) && this.active) {
-			loadOnFxThread(fxml);
+		LazyFxmlHandle next = null;
+		boolean loading = false;
+
+		synchronized (this) {
+			for (LazyFxmlHandle handle : this.handles.values()) {
+				if (handle.isRequested() && !handle.isDone()) {
+					loading = true;
+					break;
+				}
+				if (next == null && !handle.isRequested()) {
+					next = handle;
+				}
+			}
+		}
+
+		// only prefetch one file at a time so the FX thread stays responsive
+		if (!loading && next != null) {
+			this.log.info("Prefetching {}", next);
+			next.load();
 		}
 	}
 
-	public synchronized void removeFxmlResources(Fxml.Resources fxml) {
-		this.fxmls.remove(fxml);
+	private CompletableFuture<Object> scheduleLoad(Fxml fxml, long delay) {
+
+		PendingLoad existing = this.inFlight.get(fxml);
+		if (existing != null && existing.revive()) {
+			this.deduplicatedLoads.increment();
+			return existing.future;
+		}
+
+		long start = System.nanoTime();
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		PendingLoad load = new PendingLoad(fxml, result);
+		this.inFlight.put(fxml, load);
+
+		// loads may be scheduled from bind methods, before static references like the
+		// logger have been injected, so they must only be read once the load completes
+		result.whenComplete((object, e) -> {
+			this.inFlight.remove(fxml, load);
+			if (e instanceof CancellationException) {
+				this.cancelledLoads.increment();
+				return;
+			}
+			this.profiler.recordFxmlLoad(fxml, start, e == null);
+			if (e != null) {
+				Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				if (cause instanceof UncheckedIOException) {
+					MinLogger log = this.log;
+					this.platform.runOnFxApplicationThread(
+							() -> handle(fxml, ((UncheckedIOException) cause).getCause(), log));
+				} else {
+					this.log.error("Could not load {}", fxml.getLocation(), cause);
+				}
+			}
+		});
+
+		this.pending.add(load);
+
+		if (this.deactivated) {
+			// nobody is going to flush the queue anymore, e.g. because a lazy handle has
+			// been requested by a client that still holds on to it
+			result.cancel(false);
+		}
+
+		this.scheduleFlush(delay);
+
+		return result;
+	}
+
+	private void scheduleFlush(long delay) {
+		if (this.active && this.flushScheduled.compareAndSet(false, true)) {
+			this.executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void flush() {
+
+		this.flushScheduled.set(false);
+
+		List<PendingLoad> onFxThread = new ArrayList<>();
+		List<PendingLoad> onWorkerThreads = new ArrayList<>();
+
+		for (PendingLoad load; (load = this.pending.poll()) != null;) {
+			if (!load.proceed()) {
+				// unbound while waiting
+				continue;
+			}
+			if (this.asyncLoading && !(load.fxml instanceof Fxml.Controller)) {
+				onWorkerThreads.add(load);
+			} else {
+				onFxThread.add(load);
+			}
+		}
+
+		// show application windows only once all other views of the batch are ready
+		Comparator<PendingLoad> applicationsLast = Comparator.comparing(load -> load.fxml instanceof Application);
+		onFxThread.sort(applicationsLast);
+		onWorkerThreads.sort(applicationsLast);
+
+		if (!onWorkerThreads.isEmpty()) {
+			loadOnWorkerThreads(onWorkerThreads);
+		}
+
+		if (!onFxThread.isEmpty()) {
+			loadOnFxThread(onFxThread);
+		}
+	}
+
+	private void loadOnWorkerThreads(List<PendingLoad> batch) {
+
+		FxmlLoaderPool loaders = this.loaders;
+		MinLogger log = this.log;
+
+		Object[] results = new Object[batch.size()];
+		int chunks = Math.min(batch.size(), this.executor.getParallelism());
+		CompletableFuture<?>[] parsed = new CompletableFuture<?>[chunks];
+
+		for (int c = 0; c < chunks; c++) {
+			int chunk = c;
+			parsed[c] = CompletableFuture.runAsync(() -> {
+				for (int i = chunk; i < batch.size(); i += chunks) {
+					PendingLoad load = batch.get(i);
+					if (load.proceed()) {
+						try {
+							results[i] = this.parse(load.fxml, loaders, log);
+						} catch (RuntimeException e) {
+							load.future.completeExceptionally(e);
+						}
+					}
+				}
+			}, this.executor);
+		}
+
+		CompletableFuture.allOf(parsed).whenComplete((v, e) -> {
+			for (int i = 0; i < batch.size(); i++) {
+				PendingLoad load = batch.get(i);
+				Object object = results[i];
+				this.submit(load, () -> {
+					this.activity.run(load.fxml, () -> deliver(load.fxml, object));
+					return object;
+				});
+			}
+		});
 	}
 
-	private void loadOnFxThread(Fxml client) {
-		ComponentServiceObjects<FXMLLoader> loaderFactory = this.loaderFactory;
+	private void loadOnFxThread(List<PendingLoad> batch) {
+
+		FxmlLoaderPool loaders = this.loaders;
 		MinLogger log = this.log;
-		this.platform.runOnFxApplicationThread(() -> this.load(client, loaderFactory, log));
+
+		for (PendingLoad load : batch) {
+			this.submit(load, () -> this.activity.call(load.fxml, () -> {
+				Object o = this.parse(load.fxml, loaders, log);
+				deliver(load.fxml, o);
+				return o;
+			}));
+		}
 	}
 
-	private void load(Fxml fxml, ComponentServiceObjects<FXMLLoader> loaderFactory, MinLogger log) {
+	private void submit(PendingLoad load, Supplier<Object> task) {
 
-		FXMLLoader loader;
+		Runnable runnable = () -> {
+			if (load.proceed()) {
+				try {
+					load.future.complete(task.get());
+				} catch (RuntimeException e) {
+					load.future.completeExceptionally(e);
+				}
+			}
+		};
 
+		// one task per file, so the scheduler can spread the batch over several pulses
 		try {
-			loader = loaderFactory.getService();
-		} catch (IllegalStateException e) {
-			this.log.error("FXMLLoader service not available anymore!");
-			return;
+			this.scheduler.submit(runnable, Priority.BACKGROUND, FrameworkUtil.getBundle(load.fxml.getClass()));
+		} catch (RuntimeException e) {
+			load.future.completeExceptionally(e);
 		}
+	}
+
+	private Object parse(Fxml fxml, FxmlLoaderPool loaders, MinLogger log) {
+
+		Bundle bundle = FrameworkUtil.getBundle(fxml.getClass());
+		FxmlBuilder builder = this.compiledLoader.getBuilder(fxml.getLocation(), bundle);
+
+		if (builder != null) {
+			log.info("Building precompiled FXML {} for component {}", fxml.getLocation(), fxml);
+			try {
+				return this.compiledLoader.load(builder, fxml);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		// the pool hands out the most recently returned loader first, so a batch
+		// keeps reusing the same instance
+		FXMLLoader loader = loaders.acquire(bundle);
 
 		try {
-			load(fxml, loader);
+			return parse(fxml, loader, log);
 		} catch (IOException e) {
-			handle(fxml, e, log);
+			throw new UncheckedIOException(e);
 		} finally {
-			unregisterLoader(loaderFactory, loader);
+			loaders.release(loader);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> void load(Fxml fxml, FXMLLoader loader) throws IOException {
+	private <T> T parse(Fxml fxml, FXMLLoader loader, MinLogger log) throws IOException {
 
 		URL location = fxml.getLocation();
 
 		if (location != null) {
-			log.info("Loading FXML " + location + " for component " + fxml);
+			log.info("Loading FXML {} for component {}", location, fxml);
 		} else {
-			log.error("Fxml " + fxml + " didn't provide a valid location!");
+			log.error("Fxml {} didn't provide a valid location!", fxml);
 		}
 
 		loader.setLocation(location);
@@ -197,7 +595,19 @@ public class FxmlLoaderComponent {
 			loader.setRoot(fxml);
 		}
 
-		T object = loader.load();
+		if (location == null) {
+			return loader.load();
+		}
+
+		return loader.load(this.templateCache.open(location, FrameworkUtil.getBundle(fxml.getClass())));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void deliver(Fxml fxml, T object) {
+
+		Bundle bundle = FrameworkUtil.getBundle(fxml.getClass());
+		this.roots.put(fxml, object);
+		this.sceneGraph.trackRoot(bundle, object);
 
 		if (fxml instanceof Fxml.Consumer) {
 			((Fxml.Consumer<T>) fxml).accept(object);
@@ -212,6 +622,8 @@ public class FxmlLoaderComponent {
 				ExitPolicy exitPolicy = ((Application) fxml).getExitPolicy();
 				exitPolicy = exitPolicy != null ? exitPolicy : ExitPolicy.SHUTDOWN_ON_STAGE_EXIT;
 				stageService.setExitPolicy(exitPolicy, fxml.getClass());
+				this.stages.put(fxml, stageService);
+				this.sceneGraph.trackStage(bundle, stage);
 				stage.setScene(new Scene((Region) object));
 				((Application) fxml).prepareStage(stage);
 				stage.show();
@@ -222,6 +634,10 @@ public class FxmlLoaderComponent {
 			}
 		}
 
+		if (!this.fxmls.contains(fxml)) {
+			// unbound while loading
+			this.unregister(fxml);
+		}
 	}
 
 	private void handle(Fxml fxml, IOException e, MinLogger log) {
@@ -229,16 +645,55 @@ public class FxmlLoaderComponent {
 		if (fxml instanceof Fxml.ErrorHandler) {
 			((Fxml.ErrorHandler) fxml).onError(e);
 		} else {
-			log.error("Could not load " + fxml.getLocation(), e);
+			log.error("Could not load {}", fxml.getLocation(), e);
 		}
 	}
 
-	private void unregisterLoader(ComponentServiceObjects<FXMLLoader> loaderFactory, FXMLLoader loader) {
+	private static class PendingLoad {
 
-		try {
-			loaderFactory.ungetService(loader);
-		} catch (IllegalStateException e) {
-			// ignore, service has already been unregistered
+		private final Fxml fxml;
+		private final CompletableFuture<Object> future;
+
+		private boolean removed;
+
+		public PendingLoad(Fxml fxml, CompletableFuture<Object> future) {
+			this.fxml = fxml;
+			this.future = future;
+		}
+
+		/**
+		 * Marks the load as obsolete because its component has been unbound.
+		 */
+		public synchronized void remove() {
+			this.removed = true;
+		}
+
+		/**
+		 * Lets a component that has been bound again reuse this load.
+		 * 
+		 * @return {@code true} if the load is still pending and will be carried out,
+		 *         {@code false} if it has already finished or been cancelled
+		 */
+		public synchronized boolean revive() {
+			if (this.future.isDone()) {
+				return false;
+			}
+			this.removed = false;
+			return true;
+		}
+
+		/**
+		 * Checks whether the next step of the load should be carried out and
+		 * cancels the load if its component has been unbound in the meantime.
+		 * 
+		 * @return {@code true} if the load should go ahead
+		 */
+		public synchronized boolean proceed() {
+			if (this.removed) {
+				this.future.cancel(false);
+				return false;
+			}
+			return !this.future.isDone();
 		}
 	}
 }
@@ -0,0 +1,191 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentServiceObjects;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceScope;
+
+import javafx.fxml.FXMLLoader;
+import net.bbmsoft.iocfx.FxmlLoaderMetrics;
+import net.bbmsoft.iocfx.PlatformMetrics.Histogram;
+import net.bbmsoft.iocfx.impl.FrameworkProperties;
+import net.bbmsoft.iocfx.platform.impl.LogHistogram;
+
+/**
+ * Keeps {@link FXMLLoader} instances obtained from the prototype
+ * {@code FXMLLoader} service around for reuse. Returned loaders are reset to
+ * a pristine state; if there are already {@value #POOL_SIZE} idle loaders in
+ * the pool, they are released instead.
+ * <p>
+ * Each acquisition names the bundle the FXML file is loaded for, so a reused
+ * {@link OsgiFxmlLoader} resolves classes for that bundle only and not for
+ * the one it has previously been used for.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = { FxmlLoaderPool.class, FxmlLoaderMetrics.class })
+public class FxmlLoaderPool implements FxmlLoaderMetrics {
+
+	public static final String POOL_SIZE = "net.bbmsoft.iocfx.fxml.loaderPoolSize";
+
+	private final Deque<FXMLLoader> idle;
+	private final AtomicInteger idleCount;
+	private final LongAdder acquisitions;
+	private final LongAdder hits;
+	private final LogHistogram resetTimes;
+
+	@Reference(scope = ReferenceScope.PROTOTYPE_REQUIRED)
+	private ComponentServiceObjects<FXMLLoader> loaderFactory;
+
+	private int poolSize;
+
+	private volatile boolean active;
+
+	public FxmlLoaderPool() {
+		this.idle = new ConcurrentLinkedDeque<>();
+		this.idleCount = new AtomicInteger();
+		this.acquisitions = new LongAdder();
+		this.hits = new LongAdder();
+		this.resetTimes = new LogHistogram();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		this.poolSize = Math.max(0, FrameworkProperties.getInt(ctx, POOL_SIZE, 4));
+		this.active = true;
+	}
+
+	@Deactivate
+	public void deactivate() {
+		this.active = false;
+		this.drain();
+	}
+
+	/**
+	 * Gets a loader from the pool or creates a new one if the pool is empty. The
+	 * loader must be handed back using {@link #release(FXMLLoader)} once it is no
+	 * longer needed.
+	 * 
+	 * @param requester
+	 *            the bundle on whose behalf the FXML file is loaded or
+	 *            {@code null} if unknown
+	 * @return a loader
+	 * @throws IllegalStateException
+	 *             if the {@code FXMLLoader} service is not available anymore
+	 */
+	public FXMLLoader acquire(Bundle requester) {
+
+		this.acquisitions.increment();
+
+		FXMLLoader loader = this.idle.pollFirst();
+
+		if (loader != null) {
+			this.idleCount.decrementAndGet();
+			this.hits.increment();
+		} else {
+			try {
+				loader = this.loaderFactory.getService();
+			} catch (IllegalStateException e) {
+				throw new IllegalStateException("FXMLLoader service not available anymore!", e);
+			}
+		}
+
+		if (loader instanceof OsgiFxmlLoader) {
+			((OsgiFxmlLoader) loader).setRequestingBundle(requester);
+		}
+
+		return loader;
+	}
+
+	/**
+	 * Resets a loader and puts it back into the pool.
+	 * 
+	 * @param loader
+	 *            a loader previously obtained via {@link #acquire(Bundle)}
+	 */
+	public void release(FXMLLoader loader) {
+
+		long start = System.nanoTime();
+		boolean reset = this.reset(loader);
+		this.resetTimes.record(System.nanoTime() - start);
+
+		if (reset && this.active && this.idleCount.incrementAndGet() <= this.poolSize) {
+			this.idle.addFirst(loader);
+			if (!this.active) {
+				// deactivated in the meantime
+				this.drain();
+			}
+		} else {
+			if (reset && this.active) {
+				this.idleCount.decrementAndGet();
+			}
+			this.unget(loader);
+		}
+	}
+
+	@Override
+	public int getPoolSize() {
+		return this.poolSize;
+	}
+
+	@Override
+	public int getIdleLoaders() {
+		return Math.max(0, Math.min(this.poolSize, this.idleCount.get()));
+	}
+
+	@Override
+	public long getAcquisitions() {
+		return this.acquisitions.sum();
+	}
+
+	@Override
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long acquisitions = this.acquisitions.sum();
+		return acquisitions > 0 ? (double) this.hits.sum() / acquisitions : 0;
+	}
+
+	@Override
+	public Histogram getResetTimeHistogram() {
+		return this.resetTimes.snapshot();
+	}
+
+	private boolean reset(FXMLLoader loader) {
+
+		if (loader instanceof OsgiFxmlLoader) {
+			return ((OsgiFxmlLoader) loader).reset();
+		}
+
+		// we don't know how to clean up after other implementations
+		return false;
+	}
+
+	private void drain() {
+		for (FXMLLoader loader; (loader = this.idle.pollFirst()) != null;) {
+			this.idleCount.decrementAndGet();
+			this.unget(loader);
+		}
+	}
+
+	private void unget(FXMLLoader loader) {
+		try {
+			this.loaderFactory.ungetService(loader);
+		} catch (IllegalStateException e) {
+			// ignore, service has already been unregistered
+		}
+	}
+}
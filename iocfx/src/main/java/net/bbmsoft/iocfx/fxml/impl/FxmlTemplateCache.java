@@ -0,0 +1,251 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import net.bbmsoft.iocfx.FxmlTemplateCacheMetrics;
+import net.bbmsoft.iocfx.impl.FrameworkProperties;
+
+/**
+ * Keeps the contents of FXML documents in memory so that repeated loads of the
+ * same document do not have to read it from its bundle again. Documents are
+ * keyed by their URL and the revision of the bundle serving that URL and are
+ * evicted as soon as that bundle gets updated, unresolved or uninstalled. At
+ * most {@value #CACHE_SIZE} documents are kept, the least recently used ones
+ * are dropped first.
+ * <p>
+ * This only saves reading the document, it still gets parsed on every load.
+ * Documents that have been compiled into an {@link net.bbmsoft.iocfx.FxmlBuilder
+ * FxmlBuilder} at build time skip both.
+ * <p>
+ * Usage of the cache is published as {@link FxmlTemplateCacheMetrics}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = { FxmlTemplateCache.class, FxmlTemplateCacheMetrics.class })
+public class FxmlTemplateCache implements BundleListener, FxmlTemplateCacheMetrics {
+
+	public static final String CACHE_SIZE = "net.bbmsoft.iocfx.fxml.templateCacheSize";
+
+	private final Map<Key, byte[]> templates;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	private BundleContext ctx;
+
+	private volatile int maxSize;
+
+	public FxmlTemplateCache() {
+		this.templates = Collections.synchronizedMap(new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+				if (this.size() > FxmlTemplateCache.this.maxSize) {
+					FxmlTemplateCache.this.evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		});
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		this.ctx = ctx;
+		this.maxSize = Math.max(0, FrameworkProperties.getInt(ctx, CACHE_SIZE, 64));
+		ctx.addBundleListener(this);
+	}
+
+	@Deactivate
+	public void deactivate() {
+		this.ctx.removeBundleListener(this);
+		this.templates.clear();
+	}
+
+	/**
+	 * Opens a stream on the cached contents of the FXML document at the given
+	 * location, reading and caching it first if necessary.
+	 * 
+	 * @param location
+	 *            the location of the FXML document
+	 * @param bundle
+	 *            the bundle requesting the document, used if the bundle serving
+	 *            the URL can't be determined; may be {@code null} outside of an
+	 *            OSGi environment
+	 * @return a stream of the document's contents
+	 * @throws IOException
+	 *             if the document could not be read
+	 */
+	public InputStream open(URL location, Bundle bundle) throws IOException {
+
+		Key key = new Key(location, this.servingBundle(location, bundle));
+		byte[] template = this.templates.get(key);
+
+		if (template != null) {
+			this.hits.incrementAndGet();
+		} else {
+			this.misses.incrementAndGet();
+			template = read(location);
+			if (this.maxSize > 0) {
+				this.templates.put(key, template);
+			}
+		}
+
+		return new ByteArrayInputStream(template);
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+
+		switch (event.getType()) {
+		case BundleEvent.UPDATED:
+		case BundleEvent.UNRESOLVED:
+		case BundleEvent.UNINSTALLED:
+			evict(event.getBundle().getBundleId());
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	@Override
+	public int getSize() {
+		return this.templates.size();
+	}
+
+	@Override
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hits = this.hits.get();
+		long loads = hits + this.misses.get();
+		return loads > 0 ? (double) hits / loads : 0;
+	}
+
+	@Override
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	private void evict(long bundleId) {
+		synchronized (this.templates) {
+			int size = this.templates.size();
+			this.templates.keySet().removeIf(k -> k.bundleId == bundleId);
+			this.evictions.addAndGet(size - this.templates.size());
+		}
+	}
+
+	private Bundle servingBundle(URL location, Bundle fallback) {
+
+		// bundle entry URLs of all common frameworks start their host with the bundle
+		// ID, e.g. bundle://7.0:1/ (Felix) or bundleentry://7.fwk1234/ (Equinox)
+		String protocol = location.getProtocol();
+		String host = location.getHost();
+
+		if (this.ctx == null || protocol == null || !protocol.startsWith("bundle") || host == null) {
+			return fallback;
+		}
+
+		int end = 0;
+		while (end < host.length() && Character.isDigit(host.charAt(end))) {
+			end++;
+		}
+
+		if (end == 0) {
+			return fallback;
+		}
+
+		try {
+			Bundle bundle = this.ctx.getBundle(Long.parseLong(host.substring(0, end)));
+			return bundle != null ? bundle : fallback;
+		} catch (NumberFormatException | IllegalStateException e) {
+			return fallback;
+		}
+	}
+
+	private byte[] read(URL location) throws IOException {
+
+		try (InputStream in = location.openStream()) {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+
+			return out.toByteArray();
+		}
+	}
+
+	private static class Key {
+
+		private final String location;
+		private final long bundleId;
+		private final long revision;
+
+		public Key(URL location, Bundle bundle) {
+			this.location = location.toExternalForm();
+			this.bundleId = bundle != null ? bundle.getBundleId() : -1;
+			this.revision = bundle != null ? bundle.getLastModified() : -1;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.location, this.bundleId, this.revision);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) obj;
+			return this.bundleId == other.bundleId && this.revision == other.revision
+					&& this.location.equals(other.location);
+		}
+	}
+}
@@ -1,8 +1,9 @@
 package net.bbmsoft.iocfx.fxml.impl;
 
-import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.osgi.framework.FrameworkUtil;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -11,14 +12,25 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 
 import javafx.fxml.Initializable;
+import net.bbmsoft.iocfx.BackgroundInitializable;
 import net.bbmsoft.iocfx.Fxml;
-import net.bbmsoft.iocfx.Platform;
+import net.bbmsoft.iocfx.impl.BackgroundExecutor;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler.Priority;
+import net.bbmsoft.iocfx.platform.impl.FxThreadActivity;
 
 /**
  * Tracks and manages {@link Initializable} services. If a component publishes
  * itself as an {@link Initializable} service, this component will make sure its
  * initialize method gets called on the JavaFX Application thread as soon as the
  * JavaFX Platform is available.
+ * <p>
+ * {@link BackgroundInitializable} services are initialized in parallel on the
+ * {@link BackgroundExecutor} instead. All other services that are pending at
+ * the same time are initialized on the JavaFX Application Thread with
+ * {@link Priority#BACKGROUND background} priority, in the order they have been
+ * registered.
  * 
  * @author Michael Bachmann
  *
@@ -29,23 +41,27 @@ public class Initializer {
 	private final Queue<Initializable> queue;
 
 	@Reference
-	private Platform platform;
+	private FxScheduler scheduler;
 
-	private boolean active;
+	@Reference
+	private FxThreadActivity activity;
+
+	@Reference
+	private BackgroundExecutor executor;
+
+	@Reference
+	private MinLogger log;
+
+	private volatile boolean active;
 
 	public Initializer() {
-		this.queue = new LinkedList<>();
+		this.queue = new ConcurrentLinkedQueue<>();
 	}
 
 	@Activate
-	public synchronized void activate() {
-
+	public void activate() {
 		this.active = true;
-
-		while (!this.queue.isEmpty()) {
-			Initializable initializable = this.queue.remove();
-			this.platform.runOnFxApplicationThread(() -> initializable.initialize(null, null));
-		}
+		this.drain();
 	}
 
 	@Deactivate
@@ -54,21 +70,49 @@ public class Initializer {
 	}
 
 	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
-	public synchronized void addInitializable(Initializable initializable) {
+	public void addInitializable(Initializable initializable) {
 
 		if (initializable instanceof Fxml) {
 			// these are already handled by the FxmlLoaderComponent
 			return;
 		}
 
+		this.queue.add(initializable);
+
 		if (this.active) {
-			this.platform.runLater(() -> initializable.initialize(null, null));
-		} else {
-			this.queue.add(initializable);
+			this.drain();
 		}
 	}
 
-	public synchronized void removeInitializable(Initializable initializable) {
+	public void removeInitializable(Initializable initializable) {
 		this.queue.remove(initializable);
 	}
+
+	private void drain() {
+
+		Initializable initializable;
+
+		// every element can only be polled once, so concurrent drains are fine
+		while ((initializable = this.queue.poll()) != null) {
+			Initializable polled = initializable;
+			if (polled instanceof BackgroundInitializable) {
+				this.executor.execute(() -> this.initialize(polled));
+			} else {
+				this.scheduler.submit(() -> this.initializeOnFxThread(polled), Priority.BACKGROUND,
+						FrameworkUtil.getBundle(polled.getClass()));
+			}
+		}
+	}
+
+	private void initializeOnFxThread(Initializable initializable) {
+		this.activity.run(initializable, () -> this.initialize(initializable));
+	}
+
+	private void initialize(Initializable initializable) {
+		try {
+			initializable.initialize(null, null);
+		} catch (RuntimeException e) {
+			this.log.error("Could not initialize {}", initializable, e);
+		}
+	}
 }
@@ -0,0 +1,109 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+import net.bbmsoft.iocfx.Fxml;
+import net.bbmsoft.iocfx.FxmlHandle;
+
+/**
+ * {@link FxmlHandle} of an {@link Fxml.Lazy} component. The FXML file is loaded
+ * at most once, the first time {@link #load()} is called.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class LazyFxmlHandle implements FxmlHandle<Object> {
+
+	private final Fxml fxml;
+	private final Object serviceId;
+	private final Function<Fxml, CompletableFuture<Object>> loader;
+	private final AtomicReference<CompletableFuture<Object>> result;
+
+	private ServiceRegistration<?> registration;
+
+	public LazyFxmlHandle(Fxml fxml, Object serviceId, Function<Fxml, CompletableFuture<Object>> loader) {
+		this.fxml = fxml;
+		this.serviceId = serviceId;
+		this.loader = loader;
+		this.result = new AtomicReference<>();
+	}
+
+	@Override
+	public CompletableFuture<Object> load() {
+
+		CompletableFuture<Object> result = this.result.get();
+
+		if (result == null) {
+			CompletableFuture<Object> promise = new CompletableFuture<>();
+			if (this.result.compareAndSet(null, promise)) {
+				this.loader.apply(this.fxml).whenComplete((object, e) -> {
+					if (e != null) {
+						promise.completeExceptionally(e);
+					} else {
+						promise.complete(object);
+					}
+				});
+			}
+			result = this.result.get();
+		}
+
+		// don't let clients complete the shared future
+		return result.thenApply(Function.identity());
+	}
+
+	@Override
+	public boolean isLoaded() {
+		CompletableFuture<Object> result = this.result.get();
+		return result != null && result.isDone() && !result.isCompletedExceptionally();
+	}
+
+	public boolean isRequested() {
+		return this.result.get() != null;
+	}
+
+	public boolean isDone() {
+		CompletableFuture<Object> result = this.result.get();
+		return result != null && result.isDone();
+	}
+
+	public synchronized void register(BundleContext ctx) {
+
+		if (this.registration != null) {
+			return;
+		}
+
+		Hashtable<String, Object> properties = new Hashtable<>();
+		properties.put(FXML_CLASS, this.fxml.getClass().getName());
+		if (this.serviceId != null) {
+			properties.put(FXML_SERVICE_ID, this.serviceId);
+		}
+
+		this.registration = ctx.registerService(FxmlHandle.class, this, properties);
+	}
+
+	public synchronized void unregister() {
+
+		if (this.registration == null) {
+			return;
+		}
+
+		try {
+			this.registration.unregister();
+		} catch (IllegalStateException e) {
+			// ignore, the bundle has already been stopped
+		} finally {
+			this.registration = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "FxmlHandle[" + this.fxml + "]";
+	}
+}
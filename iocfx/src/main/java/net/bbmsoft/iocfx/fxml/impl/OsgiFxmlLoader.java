@@ -1,14 +1,11 @@
 package net.bbmsoft.iocfx.fxml.impl;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.FrameworkUtil;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
 import javafx.fxml.FXMLLoader;
@@ -19,34 +16,37 @@ import javafx.fxml.FXMLLoader;
  * the system bundle (which should succeed for any classes that are part of
  * JavaFX itself) and if that does not succeed, uses the call stack to find
  * other bundles that might have access to the required classes and delegates
- * class loading to those.
+ * class loading to those. The outcome of each attempt to load a class from a
+ * bundle is cached in the {@link ClassResolutionCache}.
+ * <p>
+ * If the bundle on whose behalf an FXML file is loaded is known, it can be
+ * set via {@link #setRequestingBundle(Bundle)} and is consulted before the call
+ * stack. A loader can be {@link #reset()} and reused for another FXML file.
  * 
  * @author Michael Bachmann
  */
 @Component(scope = ServiceScope.PROTOTYPE, service = FXMLLoader.class)
 public class OsgiFxmlLoader extends FXMLLoader {
 
-	private static class Helper extends SecurityManager {
-		@Override
-		protected Class<?>[] getClassContext() {
-			return super.getClassContext();
-		}
-	}
-
-	private static final Helper HELPER = new Helper();
+	private static final CallerClassResolver CALLER_CLASS_RESOLVER = CallerClassResolver.create();
 
 	private class OsgiClassLoader extends ClassLoader {
 
-		private BundleContext ctx;
+		private final ClassResolutionCache cache;
+
+		private volatile BundleContext ctx;
 
-		public OsgiClassLoader(BundleContext ctx) {
+		public OsgiClassLoader(BundleContext ctx, ClassResolutionCache cache) {
 			this.ctx = ctx;
+			this.cache = cache;
 		}
 
 		@Override
-		public synchronized Class<?> loadClass(String name) throws ClassNotFoundException {
+		public Class<?> loadClass(String name) throws ClassNotFoundException {
 
-			if (this.ctx == null) {
+			BundleContext ctx = this.ctx;
+
+			if (ctx == null) {
 				throw new ClassNotFoundException("Classloader already closed!");
 			}
 
@@ -61,55 +61,89 @@ public class OsgiFxmlLoader extends FXMLLoader {
 				}
 			}
 
-			Class<?>[] classContext = OsgiFxmlLoader.HELPER.getClassContext();
-
-			/*
-			 * unsuccessful class loading is expensive and the classContext may contain
-			 * classes multiple times as well as lots of classes from the same bundle, so we
-			 * remember which classes and bundles we already tried and don't use those again
-			 */
-			Set<Class<?>> classes = new HashSet<>();
-			Set<Bundle> bundles = new HashSet<>();
-
-			for (Class<?> c : classContext) {
-				if (classes.add(c)) {
-					bundle = FrameworkUtil.getBundle(c);
-					if (bundle != null && bundles.add(bundle)) {
-						clazz = loadClassFromBundle(name, bundle);
-						if (clazz != null) {
-							return clazz;
-						}
-					}
+			bundle = OsgiFxmlLoader.this.requestingBundle;
+			if (bundle != null) {
+				clazz = loadClassFromBundle(name, bundle);
+				if (clazz != null) {
+					return clazz;
 				}
 			}
 
-			throw new ClassNotFoundException();
+			clazz = OsgiFxmlLoader.CALLER_CLASS_RESOLVER.resolve(b -> loadClassFromBundle(name, b));
+			if (clazz != null) {
+				return clazz;
+			}
+
+			throw new ClassNotFoundException(name);
 		}
 
 		private Class<?> loadClassFromBundle(String className, Bundle bundle) {
+			return this.cache.loadClass(bundle, className);
+		}
 
-			try {
-				return bundle.loadClass(className);
-			} catch (ClassNotFoundException e) {
-				return null;
-			}
+		public boolean isClosed() {
+			return this.ctx == null;
 		}
 
-		public synchronized void close() {
+		public void close() {
 			this.ctx = null;
 		}
 
 	}
 
+	@Reference
+	private ClassResolutionCache cache;
+
 	private OsgiClassLoader classLoader;
 
+	private volatile Bundle requestingBundle;
+
 	@Activate
 	public void activate(BundleContext ctx) {
-		this.setClassLoader(this.classLoader = new OsgiClassLoader(ctx));
+		this.setClassLoader(this.classLoader = new OsgiClassLoader(ctx, this.cache));
 	}
 
 	@Deactivate
 	public void deactivate() {
 		this.classLoader.close();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Sets the bundle on whose behalf the next FXML file is loaded. Classes
+	 * referenced in the file are looked up in that bundle before the bundles on
+	 * the call stack are tried.
+	 * 
+	 * @param bundle
+	 *            the requesting bundle or {@code null} to rely on the call stack
+	 *            only
+	 */
+	public void setRequestingBundle(Bundle bundle) {
+		this.requestingBundle = bundle;
+	}
+
+	/**
+	 * Restores the state of a freshly created loader so it can be used to load
+	 * another FXML file. This includes the imports resolved for the previous
+	 * file, which {@code FXMLLoader} clears whenever its class loader is set.
+	 * 
+	 * @return {@code false} if the loader can't be reused because it has already
+	 *         been deactivated
+	 */
+	public boolean reset() {
+
+		if (this.classLoader.isClosed()) {
+			return false;
+		}
+
+		this.setLocation(null);
+		this.setResources(null);
+		this.setRoot(null);
+		this.setController(null);
+		this.setControllerFactory(null);
+		this.getNamespace().clear();
+		this.setClassLoader(this.classLoader);
+		this.requestingBundle = null;
+
+		return true;
+	}
+}
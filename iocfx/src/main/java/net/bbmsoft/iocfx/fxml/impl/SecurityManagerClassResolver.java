@@ -0,0 +1,55 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * {@link CallerClassResolver} for Java 8 that obtains the call stack from
+ * {@link SecurityManager#getClassContext()}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class SecurityManagerClassResolver implements CallerClassResolver {
+
+	private static class Helper extends SecurityManager {
+		@Override
+		protected Class<?>[] getClassContext() {
+			return super.getClassContext();
+		}
+	}
+
+	private static final Helper HELPER = new Helper();
+
+	@Override
+	public Class<?> resolve(Function<Bundle, Class<?>> loader) {
+
+		Class<?>[] classContext = HELPER.getClassContext();
+
+		/*
+		 * unsuccessful class loading is expensive and the classContext may contain
+		 * classes multiple times as well as lots of classes from the same bundle, so we
+		 * remember which classes and bundles we already tried and don't use those again
+		 */
+		Set<Class<?>> classes = new HashSet<>();
+		Set<Bundle> bundles = new HashSet<>();
+
+		for (Class<?> c : classContext) {
+			if (classes.add(c)) {
+				Bundle bundle = FrameworkUtil.getBundle(c);
+				if (bundle != null && bundles.add(bundle)) {
+					Class<?> clazz = loader.apply(bundle);
+					if (clazz != null) {
+						return clazz;
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,155 @@
+package net.bbmsoft.iocfx.fxml.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * {@link CallerClassResolver} based on {@code java.lang.StackWalker}. Frames are
+ * walked lazily, so the walk stops as soon as a bundle on the stack is able to
+ * load the requested class. Bundles that have already been tried are tracked in
+ * a reusable per-thread buffer instead of a freshly allocated set.
+ * <p>
+ * Since IoCFX still supports Java 8, {@code StackWalker} is accessed through
+ * method handles.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class StackWalkerClassResolver implements CallerClassResolver {
+
+	private static final Object WALKER;
+	private static final MethodHandle WALK;
+	private static final MethodHandle GET_DECLARING_CLASS;
+
+	static {
+
+		Object walker = null;
+		MethodHandle walk = null;
+		MethodHandle getDeclaringClass = null;
+
+		try {
+			Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+			Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+			Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+
+			Object retainClassReference = optionClass.getField("RETAIN_CLASS_REFERENCE").get(null);
+			Method getInstance = walkerClass.getMethod("getInstance", optionClass);
+
+			// walk is caller sensitive and cannot be looked up through the public lookup
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			walker = getInstance.invoke(null, retainClassReference);
+			walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class));
+			getDeclaringClass = lookup.findVirtual(frameClass, "getDeclaringClass",
+					MethodType.methodType(Class.class));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			walker = null;
+		}
+
+		WALKER = walker;
+		WALK = walk;
+		GET_DECLARING_CLASS = getDeclaringClass;
+	}
+
+	private static final ThreadLocal<BundleBuffer> BUFFERS = ThreadLocal.withInitial(BundleBuffer::new);
+
+	static boolean isAvailable() {
+		return WALKER != null;
+	}
+
+	@Override
+	public Class<?> resolve(Function<Bundle, Class<?>> loader) {
+
+		BundleBuffer shared = BUFFERS.get();
+
+		// a nested lookup triggered by a bundle's class loading must not share the buffer
+		BundleBuffer buffer = shared.inUse ? new BundleBuffer() : shared;
+
+		buffer.inUse = true;
+
+		try {
+			Function<Stream<?>, Class<?>> walker = frames -> this.walk(frames.iterator(), loader, buffer);
+			return (Class<?>) WALK.invoke(WALKER, walker);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		} finally {
+			buffer.clear();
+			buffer.inUse = false;
+		}
+	}
+
+	private Class<?> walk(Iterator<?> frames, Function<Bundle, Class<?>> loader, BundleBuffer tried) {
+
+		Class<?> previous = null;
+
+		while (frames.hasNext()) {
+
+			Class<?> c = getDeclaringClass(frames.next());
+
+			// consecutive frames very often belong to the same class
+			if (c == previous) {
+				continue;
+			}
+
+			previous = c;
+
+			Bundle bundle = FrameworkUtil.getBundle(c);
+			if (bundle != null && tried.add(bundle)) {
+				Class<?> clazz = loader.apply(bundle);
+				if (clazz != null) {
+					return clazz;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private Class<?> getDeclaringClass(Object frame) {
+		try {
+			return (Class<?>) GET_DECLARING_CLASS.invoke(frame);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class BundleBuffer {
+
+		private Bundle[] bundles = new Bundle[16];
+		private int size;
+		private boolean inUse;
+
+		public boolean add(Bundle bundle) {
+
+			for (int i = 0; i < this.size; i++) {
+				if (this.bundles[i] == bundle) {
+					return false;
+				}
+			}
+
+			if (this.size == this.bundles.length) {
+				this.bundles = Arrays.copyOf(this.bundles, this.size * 2);
+			}
+
+			this.bundles[this.size++] = bundle;
+			return true;
+		}
+
+		public void clear() {
+			Arrays.fill(this.bundles, 0, this.size, null);
+			this.size = 0;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+/**
+ * A bounded pool of daemon worker threads for IoCFX work that should not block
+ * the JavaFX Application Thread. The number of threads can be configured with
+ * the {@value #POOL_SIZE} framework property. If virtual threads are enabled
+ * (see {@link Threads#VIRTUAL_THREADS}), every task runs on its own virtual
+ * thread instead and the pool size only limits how many chunks CPU bound work
+ * like FXML parsing is split into.
+ * <p>
+ * Periodic tasks run on a separate timer thread and should therefore be short.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = BackgroundExecutor.class)
+public class BackgroundExecutor implements Executor {
+
+	public static final String POOL_SIZE = "net.bbmsoft.iocfx.workers";
+
+	private ExecutorService executor;
+
+	private int poolSize;
+
+	private ScheduledExecutorService timer;
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		int defaultPoolSize = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		this.poolSize = Math.max(1, FrameworkProperties.getInt(ctx, POOL_SIZE, defaultPoolSize));
+		this.executor = Threads.newExecutor("IoCFX Worker Thread #", this.poolSize, Threads.useVirtualThreads(ctx));
+		this.timer = Executors.newSingleThreadScheduledExecutor(Threads.newThreadFactory("IoCFX Timer Thread #", false));
+	}
+
+	@Deactivate
+	public void deactivate() {
+		this.timer.shutdownNow();
+		this.executor.shutdownNow();
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		this.executor.execute(command);
+	}
+
+	/**
+	 * @return the number of worker threads
+	 */
+	public int getParallelism() {
+		return this.poolSize;
+	}
+
+	/**
+	 * Runs a task once on the timer thread after the specified delay.
+	 * 
+	 * @param command
+	 *            the task
+	 * @param delay
+	 *            the delay before the task is run
+	 * @param unit
+	 *            the unit of the delay
+	 * @return a future that can be used to cancel the task
+	 */
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+		return this.timer.schedule(() -> {
+			try {
+				command.run();
+			} catch (RuntimeException e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}, delay, unit);
+	}
+
+	/**
+	 * Repeatedly runs a task on the timer thread with the specified delay between
+	 * the end of one run and the start of the next. A run that fails does not
+	 * prevent subsequent runs.
+	 * 
+	 * @param command
+	 *            the task
+	 * @param delay
+	 *            the delay before the first and between subsequent runs
+	 * @param unit
+	 *            the unit of the delay
+	 * @return a future that can be used to cancel the task
+	 */
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long delay, TimeUnit unit) {
+		return this.timer.scheduleWithFixedDelay(() -> {
+			try {
+				command.run();
+			} catch (RuntimeException e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}, delay, delay, unit);
+	}
+}
@@ -0,0 +1,32 @@
+package net.bbmsoft.iocfx.impl;
+
+import org.osgi.framework.BundleActivator;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Starts the JavaFX toolkit as soon as the IoCFX bundle is started if the
+ * {@value #EARLY_BOOTSTRAP} framework property is set to {@code true}. This
+ * lets the toolkit start up in parallel to the resolution and activation of
+ * the remaining bundles instead of waiting for the
+ * {@link JavaFXFrameworkLauncher} component to be satisfied. To get the most
+ * out of this, give the IoCFX bundle a low start level.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class EarlyBootstrapActivator implements BundleActivator {
+
+	public static final String EARLY_BOOTSTRAP = "net.bbmsoft.iocfx.earlyBootstrap";
+
+	@Override
+	public void start(BundleContext context) throws Exception {
+		if (FrameworkProperties.getBoolean(context, EARLY_BOOTSTRAP, false)) {
+			JavaFXFrameworkLauncher.launchToolkit(Threads.useVirtualThreads(context));
+		}
+	}
+
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		// the toolkit can't be restarted, so it is kept running
+	}
+}
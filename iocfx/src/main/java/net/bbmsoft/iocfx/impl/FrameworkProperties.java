@@ -0,0 +1,60 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.util.Locale;
+
+import org.osgi.framework.BundleContext;
+
+/**
+ * Reads IoCFX configuration from the framework properties. Malformed values are
+ * ignored and the provided default is used instead.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public final class FrameworkProperties {
+
+	private FrameworkProperties() {
+		// static helper
+	}
+
+	public static boolean getBoolean(BundleContext ctx, String key, boolean defaultValue) {
+		String value = ctx.getProperty(key);
+		return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+	}
+
+	public static int getInt(BundleContext ctx, String key, int defaultValue) {
+		String value = ctx.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public static long getLong(BundleContext ctx, String key, long defaultValue) {
+		String value = ctx.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public static <E extends Enum<E>> E getEnum(BundleContext ctx, String key, Class<E> type, E defaultValue) {
+		String value = ctx.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			return defaultValue;
+		}
+	}
+}
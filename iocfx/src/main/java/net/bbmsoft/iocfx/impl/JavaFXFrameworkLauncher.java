@@ -1,22 +1,41 @@
 package net.bbmsoft.iocfx.impl;
 
-import org.osgi.framework.Bundle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.stage.Stage;
+import net.bbmsoft.iocfx.FxExecutor;
+import net.bbmsoft.iocfx.PlatformMetrics;
+import net.bbmsoft.iocfx.StartupReport;
 import net.bbmsoft.iocfx.log.impl.MinLogger;
-import net.bbmsoft.iocfx.platform.impl.PlatformWrapper;
+import net.bbmsoft.iocfx.platform.impl.FxDispatcher;
+import net.bbmsoft.iocfx.platform.impl.FxExecutorFactory;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler;
+import net.bbmsoft.iocfx.platform.impl.PlatformMetricsImpl;
+import net.bbmsoft.iocfx.platform.impl.PlatformServiceFactory;
 
 /**
  * This component will attempt to initialize the JavaFX Platform and register a
  * {@link net.bbmsoft.iocfx.Platform} as soon as the JavaFX Platform is
  * guaranteed to be available.
+ * <p>
+ * By default the JavaFX toolkit is started when this component is activated.
+ * If the {@value EarlyBootstrapActivator#EARLY_BOOTSTRAP} framework property is
+ * set to {@code true}, it is started as soon as the IoCFX bundle is started
+ * instead and the {@link net.bbmsoft.iocfx.Platform} service is registered once
+ * both the toolkit and this component are ready.
  * 
  * @author Michael Bachmann
  *
@@ -24,42 +43,141 @@ import net.bbmsoft.iocfx.platform.impl.PlatformWrapper;
 @Component
 public class JavaFXFrameworkLauncher {
 
+	public static final String PULSE_BUDGET = "net.bbmsoft.iocfx.platform.pulseBudgetMillis";
+	public static final String LONG_RUNNING_TASK_THRESHOLD = "net.bbmsoft.iocfx.platform.longRunningTaskMillis";
+
+	private static final CompletableFuture<Long> TOOLKIT = new CompletableFuture<>();
+	private static final AtomicBoolean LAUNCHED = new AtomicBoolean();
+
+	private static volatile boolean startedElsewhere;
+
+	private final List<ServiceRegistration<?>> registrations;
+
 	@Reference
 	private MinLogger log;
 
+	@Reference
+	private StartupProfiler profiler;
+
+	private boolean active;
+
+	private BundleContext ctx;
+
+	private FxExecutorFactory executors;
+
+	public JavaFXFrameworkLauncher() {
+		this.registrations = new ArrayList<>();
+	}
+
 	@Activate
-	public synchronized void activate() {
+	public synchronized void activate(BundleContext ctx) {
+
+		this.active = true;
+
 		log.info("Initializing JavaFX Platform...");
-		new Thread(this::launchFramework, "JavaFX Platform Launcher Thread").start();
+		this.profiler.mark(StartupReport.LAUNCH_REQUESTED);
+
+		launchToolkit(Threads.useVirtualThreads(ctx));
+
+		TOOLKIT.whenComplete((startTime, e) -> {
+			if (e != null) {
+				log.error("Could not start the JavaFX Platform!", e);
+				return;
+			}
+			if (startedElsewhere) {
+				// this will happen if this bundle has been activated after something else
+				// has already started the JavaFX Platform so we will just register the
+				// Platform service from the JavaFX Application Thread
+				log.error("JavaFX Platform already running.");
+			}
+			this.profiler.mark(StartupReport.TOOLKIT_STARTED, startTime);
+			Platform.runLater(() -> this.registerPlatformService(ctx));
+		});
 	}
 
-	private void launchFramework() {
+	@Deactivate
+	public synchronized void deactivate() {
+
+		this.active = false;
+
+		for (ServiceRegistration<?> registration : this.registrations) {
+			try {
+				registration.unregister();
+			} catch (IllegalStateException e) {
+				// already unregistered by the framework
+			}
+		}
+
+		this.registrations.clear();
+
+		if (this.executors != null) {
+			this.ctx.removeBundleListener(this.executors);
+			this.executors = null;
+		}
+	}
+
+	/**
+	 * Starts the JavaFX toolkit on a separate thread unless this has already been
+	 * done. May be called before this component is activated, e.g. by the
+	 * {@link EarlyBootstrapActivator}, to let the toolkit start up in parallel to
+	 * the rest of the framework.
+	 * <p>
+	 * The launcher thread does nothing but wait for the toolkit to exit, so it
+	 * can be a virtual thread.
+	 *
+	 * @param virtual
+	 *            whether to launch from a virtual thread if supported
+	 */
+	static void launchToolkit(boolean virtual) {
+		if (LAUNCHED.compareAndSet(false, true)) {
+			Threads.start("JavaFX Platform Launcher Thread", JavaFXFrameworkLauncher::launchFramework, virtual);
+		}
+	}
+
+	private static void launchFramework() {
 		try {
 			Application.launch(RootApplication.class);
 		} catch (IllegalStateException e) {
-			// this will happen if this bundle has been activated after something else has
-			// already started the JavaFX Platform so we will just register the Platform
-			// service from the JavaFX Application Thread
-			log.error("JavaFX Platform already running.");
-			RootApplication.registerPlatformService();
+			startedElsewhere = true;
+			Platform.runLater(() -> TOOLKIT.complete(System.nanoTime()));
+		} catch (RuntimeException e) {
+			TOOLKIT.completeExceptionally(e);
 		}
 	}
 
-	public static class RootApplication extends Application {
+	private synchronized void registerPlatformService(BundleContext ctx) {
 
-		@Override
-		public synchronized void start(Stage primaryStage) {
-			registerPlatformService();
+		if (!this.active) {
+			// deactivated before the toolkit was up
+			return;
 		}
 
-		private static void registerPlatformService() {
+		Platform.setImplicitExit(false);
 
-			Platform.setImplicitExit(false);
+		long pulseBudget = FrameworkProperties.getLong(ctx, PULSE_BUDGET, 8);
+		long longRunningTaskThreshold = FrameworkProperties.getLong(ctx, LONG_RUNNING_TASK_THRESHOLD, 50);
+
+		PlatformMetricsImpl metrics = new PlatformMetricsImpl(TimeUnit.MILLISECONDS.toNanos(longRunningTaskThreshold));
+		FxDispatcher dispatcher = new FxDispatcher(TimeUnit.MILLISECONDS.toNanos(pulseBudget), metrics);
 
-			Bundle bundle = FrameworkUtil.getBundle(JavaFXFrameworkLauncher.class);
-			BundleContext ctx = bundle.getBundleContext();
+		this.registrations.add(ctx.registerService(PlatformMetrics.class, metrics, null));
+		this.registrations.add(ctx.registerService(FxScheduler.class, new FxScheduler(dispatcher), null));
+		this.registrations.add(ctx.registerService(net.bbmsoft.iocfx.Platform.class,
+				new PlatformServiceFactory(dispatcher), null));
+		this.ctx = ctx;
+		this.executors = new FxExecutorFactory(dispatcher, this.log);
+		ctx.addBundleListener(this.executors);
+		this.registrations.add(ctx.registerService(FxExecutor.class, this.executors, null));
 
-			ctx.registerService(net.bbmsoft.iocfx.Platform.class, new PlatformWrapper(), null);
+		this.profiler.mark(StartupReport.PLATFORM_REGISTERED);
+	}
+
+	public static class RootApplication extends Application {
+
+		@Override
+		public synchronized void start(Stage primaryStage) {
+			Platform.setImplicitExit(false);
+			TOOLKIT.complete(System.nanoTime());
 		}
 	}
 
@@ -0,0 +1,408 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Control;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TitledPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import net.bbmsoft.iocfx.Platform;
+import net.bbmsoft.iocfx.SceneGraphMemory;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+
+/**
+ * Keeps track of the stages and FXML roots IoCFX hands out, grouped by the
+ * bundle they have been handed out to. Everything is referenced weakly, so
+ * tracking never keeps anything from being garbage collected. When a bundle
+ * stops, whatever is still tracked for it is released: stages are hidden and
+ * lose their scene, roots are detached from the scene graph.
+ * <p>
+ * Roots are detached from the children of a {@link Pane} or {@link Group},
+ * from the content of a {@link ScrollPane}, {@link TitledPane} or {@link Tab},
+ * from the items of a {@link SplitPane} and from a {@link Scene} they are the
+ * root of. Tabs are removed from their tab pane. Roots held by any other
+ * container, e.g. by a custom control, stay where they are.
+ * <p>
+ * The heap estimate adds up typical sizes of nodes, regions and controls
+ * including their CSS state, plus the pixel buffers of images and canvases. It
+ * does not account for everything a node references and is only meant to show
+ * trends.
+ *
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = { SceneGraphRegistry.class, SceneGraphMemory.class })
+public class SceneGraphRegistry implements SceneGraphMemory {
+
+	private static final long BYTES_PER_NODE = 512;
+	private static final long BYTES_PER_REGION = 1536;
+	private static final long BYTES_PER_CONTROL = 3072;
+	private static final long BYTES_PER_PIXEL = 4;
+
+	// values must not reference the keys or they would never be collected
+	private final Map<Stage, Bundle> stages;
+	private final Map<Object, Bundle> roots;
+
+	@Reference
+	private Platform platform;
+
+	@Reference
+	private MinLogger log;
+
+	private BundleContext ctx;
+
+	private BundleListener bundleListener;
+
+	public SceneGraphRegistry() {
+		this.stages = new WeakHashMap<>();
+		this.roots = new WeakHashMap<>();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+
+		this.ctx = ctx;
+		this.bundleListener = e -> {
+			if (e.getType() == BundleEvent.STOPPED || e.getType() == BundleEvent.UNINSTALLED) {
+				this.release(e.getBundle());
+			}
+		};
+
+		ctx.addBundleListener(this.bundleListener);
+	}
+
+	@Deactivate
+	public synchronized void deactivate() {
+		this.ctx.removeBundleListener(this.bundleListener);
+		this.stages.clear();
+		this.roots.clear();
+	}
+
+	/**
+	 * Tracks a stage. A stage that is already tracked is reassigned to the new
+	 * owner.
+	 *
+	 * @param owner
+	 *            the bundle the stage has been handed out to
+	 * @param stage
+	 *            the stage
+	 */
+	public synchronized void trackStage(Bundle owner, Stage stage) {
+		if (owner != null) {
+			this.stages.put(stage, owner);
+		}
+	}
+
+	/**
+	 * Stops tracking a stage, e.g. because it has been returned to IoCFX.
+	 *
+	 * @param stage
+	 *            the stage
+	 */
+	public synchronized void untrackStage(Stage stage) {
+		this.stages.remove(stage);
+	}
+
+	/**
+	 * Tracks the root of a loaded FXML file.
+	 *
+	 * @param owner
+	 *            the bundle the root has been loaded for
+	 * @param root
+	 *            the root
+	 */
+	public synchronized void trackRoot(Bundle owner, Object root) {
+		if (owner != null && root != null) {
+			this.roots.put(root, owner);
+		}
+	}
+
+	/**
+	 * Stops tracking a root and detaches it from the scene graph. Must be called
+	 * on the JavaFX Application Thread.
+	 *
+	 * @param root
+	 *            the root
+	 */
+	public void release(Object root) {
+
+		synchronized (this) {
+			this.roots.remove(root);
+		}
+
+		detach(root);
+	}
+
+	@Override
+	public CompletableFuture<List<BundleUsage>> getUsage() {
+
+		Map<Stage, Bundle> stages;
+		Map<Object, Bundle> roots;
+
+		synchronized (this) {
+			stages = new IdentityHashMap<>(this.stages);
+			roots = new IdentityHashMap<>(this.roots);
+		}
+
+		return this.platform.<List<BundleUsage>>supplyOnFxThread(() -> {
+
+			Map<Bundle, Usage> usage = new LinkedHashMap<>();
+
+			stages.forEach((stage, bundle) -> {
+				Usage u = usage.computeIfAbsent(bundle, Usage::new);
+				u.stages++;
+				Scene scene = stage.getScene();
+				if (scene != null) {
+					u.count(scene.getRoot());
+				}
+			});
+
+			roots.forEach((root, bundle) -> {
+				Usage u = usage.computeIfAbsent(bundle, Usage::new);
+				u.roots++;
+				if (root instanceof Node) {
+					u.count((Node) root);
+				} else if (root instanceof Tab && ((Tab) root).getContent() != null) {
+					u.count(((Tab) root).getContent());
+				}
+			});
+
+			return new ArrayList<>(usage.values());
+		});
+	}
+
+	private void release(Bundle bundle) {
+
+		List<Stage> stages = new ArrayList<>();
+		List<Object> roots = new ArrayList<>();
+
+		synchronized (this) {
+			this.stages.forEach((stage, owner) -> {
+				if (owner.equals(bundle)) {
+					stages.add(stage);
+				}
+			});
+			this.roots.forEach((root, owner) -> {
+				if (owner.equals(bundle)) {
+					roots.add(root);
+				}
+			});
+			this.stages.keySet().removeAll(stages);
+			this.roots.keySet().removeAll(roots);
+		}
+
+		if (stages.isEmpty() && roots.isEmpty()) {
+			return;
+		}
+
+		this.log.info("Releasing {} stage(s) and root(s) left behind by {}", stages.size() + roots.size(),
+				bundle.getSymbolicName());
+
+		this.platform.runOnFxApplicationThread(() -> {
+			for (Stage stage : stages) {
+				stage.hide();
+				stage.setScene(null);
+			}
+			roots.forEach(SceneGraphRegistry::detach);
+		});
+	}
+
+	private static void detach(Object root) {
+
+		if (root instanceof Tab) {
+			Tab tab = (Tab) root;
+			if (tab.getTabPane() != null) {
+				tab.getTabPane().getTabs().remove(tab);
+			}
+			tab.setContent(null);
+			return;
+		}
+
+		if (!(root instanceof Node)) {
+			return;
+		}
+
+		Node node = (Node) root;
+		Parent parent = node.getParent();
+
+		if (parent == null) {
+			Scene scene = node.getScene();
+			if (scene != null && scene.getRoot() == node) {
+				// a scene can't be without a root
+				scene.setRoot(new Group());
+			}
+			return;
+		}
+
+		// controls keep their content somewhere inside their skin, so look for the
+		// control owning the node before touching any of its ancestors' children
+		for (Parent ancestor = parent; ancestor != null; ancestor = ancestor.getParent()) {
+			if (ancestor instanceof Control) {
+				if (releaseContent((Control) ancestor, node)) {
+					return;
+				}
+				break;
+			}
+		}
+
+		if (parent instanceof Pane) {
+			((Pane) parent).getChildren().remove(node);
+		} else if (parent instanceof Group) {
+			((Group) parent).getChildren().remove(node);
+		}
+	}
+
+	private static boolean releaseContent(Control control, Node node) {
+
+		if (control instanceof ScrollPane && ((ScrollPane) control).getContent() == node) {
+			((ScrollPane) control).setContent(null);
+			return true;
+		}
+
+		if (control instanceof TitledPane && ((TitledPane) control).getContent() == node) {
+			((TitledPane) control).setContent(null);
+			return true;
+		}
+
+		if (control instanceof SplitPane) {
+			return ((SplitPane) control).getItems().remove(node);
+		}
+
+		if (control instanceof TabPane) {
+			for (Tab tab : ((TabPane) control).getTabs()) {
+				if (tab.getContent() == node) {
+					tab.setContent(null);
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static class Usage implements BundleUsage {
+
+		private final long bundleId;
+		private final String symbolicName;
+		private final Set<Node> visited;
+		private final Set<Object> buffers;
+
+		private long bytes;
+
+		private int stages;
+		private int roots;
+
+		public Usage(Bundle bundle) {
+			this.bundleId = bundle.getBundleId();
+			this.symbolicName = bundle.getSymbolicName();
+			this.visited = Collections.newSetFromMap(new IdentityHashMap<>());
+			this.buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+		}
+
+		private void count(Node root) {
+
+			Deque<Node> todo = new ArrayDeque<>();
+			todo.push(root);
+
+			// roots that are part of a tracked stage's scene must only be counted once
+			while (!todo.isEmpty()) {
+				Node node = todo.pop();
+				if (!this.visited.add(node)) {
+					continue;
+				}
+				this.bytes += this.estimate(node);
+				if (node instanceof Parent) {
+					((Parent) node).getChildrenUnmodifiable().forEach(todo::push);
+				}
+			}
+		}
+
+		private long estimate(Node node) {
+
+			long bytes = node instanceof Control ? BYTES_PER_CONTROL
+					: node instanceof Region ? BYTES_PER_REGION : BYTES_PER_NODE;
+
+			// images may be shared between nodes, so their pixels are only counted once
+			if (node instanceof ImageView) {
+				Image image = ((ImageView) node).getImage();
+				if (image != null && this.buffers.add(image)) {
+					bytes += (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+				}
+			} else if (node instanceof Canvas) {
+				Canvas canvas = (Canvas) node;
+				if (this.buffers.add(canvas)) {
+					bytes += (long) canvas.getWidth() * (long) canvas.getHeight() * BYTES_PER_PIXEL;
+				}
+			}
+
+			return bytes;
+		}
+
+		@Override
+		public long getBundleId() {
+			return this.bundleId;
+		}
+
+		@Override
+		public String getSymbolicName() {
+			return this.symbolicName;
+		}
+
+		@Override
+		public int getStages() {
+			return this.stages;
+		}
+
+		@Override
+		public int getRoots() {
+			return this.roots;
+		}
+
+		@Override
+		public int getNodes() {
+			return this.visited.size();
+		}
+
+		@Override
+		public long getEstimatedBytes() {
+			return this.bytes;
+		}
+
+		@Override
+		public String toString() {
+			return this.symbolicName + " [" + this.bundleId + "]: " + this.stages + " stage(s), " + this.roots
+					+ " root(s), " + this.getNodes() + " node(s), ~" + this.getEstimatedBytes() / 1024 + " KiB";
+		}
+	}
+}
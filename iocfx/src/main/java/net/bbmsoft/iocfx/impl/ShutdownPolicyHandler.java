@@ -1,26 +1,49 @@
 package net.bbmsoft.iocfx.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
-import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 
 import javafx.event.EventHandler;
 import javafx.event.EventType;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
+import net.bbmsoft.iocfx.BundleShutdownListener;
+import net.bbmsoft.iocfx.BundleShutdownListener.Result;
 import net.bbmsoft.iocfx.log.impl.MinLogger;
 
 /**
  * Adds the listeners to the stage that are required to enforce the specified
  * exit ploicy.
+ * <p>
+ * Bundles are never stopped on the JavaFX Application Thread, so the closing UI
+ * doesn't freeze. Each bundle is stopped on its own background thread. Bundles
+ * that are wired to other bundles being stopped are stopped before those,
+ * independent bundles are stopped in parallel. A bundle that takes longer than
+ * {@value #STOP_TIMEOUT} milliseconds to stop is no longer waited for. The
+ * progress is reported to all {@link BundleShutdownListener} services.
  * 
  * @author Michael Bachmann
  *
@@ -28,12 +51,39 @@ import net.bbmsoft.iocfx.log.impl.MinLogger;
 @Component(service = ShutdownPolicyHandler.class)
 public class ShutdownPolicyHandler {
 
+	public static final String STOP_TIMEOUT = "net.bbmsoft.iocfx.shutdown.bundleTimeoutMillis";
+
 	private static final EventType<WindowEvent> EXIT_POLICY_TRIGGER_EVENT = WindowEvent.WINDOW_HIDING;
 
+	// kept in the stage's properties, so this component never keeps a stage alive
+	private static final String EVENT_HANDLER = ShutdownPolicyHandler.class.getName() + ".eventHandler";
+
 	@Reference
 	private MinLogger log;
 
-	private final Map<Stage, EventHandler<WindowEvent>> eventHandlers = new HashMap<>();
+	@Reference
+	private BackgroundExecutor executor;
+
+	private final List<BundleShutdownListener> listeners = new CopyOnWriteArrayList<>();
+
+	private long stopTimeout;
+
+	private boolean virtualThreads;
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		this.stopTimeout = FrameworkProperties.getLong(ctx, STOP_TIMEOUT, 10000);
+		this.virtualThreads = Threads.useVirtualThreads(ctx);
+	}
+
+	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+	public void addShutdownListener(BundleShutdownListener listener) {
+		this.listeners.add(listener);
+	}
+
+	public void removeShutdownListener(BundleShutdownListener listener) {
+		this.listeners.remove(listener);
+	}
 
 	/**
 	 * Adds an event handler to the stage that will stop the bundle the stage was
@@ -63,25 +113,20 @@ public class ShutdownPolicyHandler {
 			e.consume();
 			stage.hide();
 
-			for (Bundle b : bundles) {
-				if (b != null) {
-					try {
-						b.stop();
-					} catch (BundleException e1) {
-						log.error("Could not stop the stage user's bundle.");
-						e1.printStackTrace();
-					}
-				}
-			}
+			this.stopBundles(bundles);
 		};
 
-		this.eventHandlers.put(stage, eventHandler);
+		addHandler(stage, eventHandler);
+	}
 
+	private void addHandler(Stage stage, EventHandler<WindowEvent> eventHandler) {
+		stage.getProperties().put(EVENT_HANDLER, eventHandler);
 		stage.addEventHandler(EXIT_POLICY_TRIGGER_EVENT, eventHandler);
 	}
 
+	@SuppressWarnings("unchecked")
 	private void removeExistingHandler(Stage stage) {
-		EventHandler<WindowEvent> oldHandler = eventHandlers.remove(stage);
+		EventHandler<WindowEvent> oldHandler = (EventHandler<WindowEvent>) stage.getProperties().remove(EVENT_HANDLER);
 		if (oldHandler != null) {
 			stage.removeEventHandler(EXIT_POLICY_TRIGGER_EVENT, oldHandler);
 		}
@@ -112,19 +157,12 @@ public class ShutdownPolicyHandler {
 		removeExistingHandler(stage);
 
 		EventHandler<WindowEvent> eventHandler = e -> {
-			try {
-				e.consume();
-				stage.hide();
-				systemBundle.stop();
-			} catch (BundleException e1) {
-				log.error("Could not stop the system bundle.");
-				e1.printStackTrace();
-			}
+			e.consume();
+			stage.hide();
+			this.stopBundles(systemBundle);
 		};
 
-		eventHandlers.put(stage, eventHandler);
-
-		stage.addEventHandler(EXIT_POLICY_TRIGGER_EVENT, eventHandler);
+		addHandler(stage, eventHandler);
 	}
 
 	/**
@@ -137,8 +175,120 @@ public class ShutdownPolicyHandler {
 		removeExistingHandler(stage);
 	}
 
-	@Deactivate
-	public synchronized void deactivate() {
-		this.eventHandlers.clear();
+	private void stopBundles(Bundle... bundles) {
+
+		Map<Bundle, List<Bundle>> dependents = new LinkedHashMap<>();
+		for (Bundle bundle : bundles) {
+			if (bundle != null) {
+				dependents.put(bundle, new ArrayList<>());
+			}
+		}
+
+		if (dependents.isEmpty()) {
+			return;
+		}
+
+		// a bundle must only be stopped after all bundles that are wired to it
+		for (Bundle bundle : dependents.keySet()) {
+			BundleWiring wiring = bundle.adapt(BundleWiring.class);
+			if (wiring != null) {
+				for (BundleWire wire : wiring.getRequiredWires(null)) {
+					List<Bundle> providerDependents = dependents.get(wire.getProvider().getBundle());
+					if (providerDependents != null && !bundle.equals(wire.getProvider().getBundle())) {
+						providerDependents.add(bundle);
+					}
+				}
+			}
+		}
+
+		List<String> names = new ArrayList<>();
+		dependents.keySet().forEach(b -> names.add(b.getSymbolicName()));
+		for (BundleShutdownListener listener : this.listeners) {
+			try {
+				listener.shutdownStarted(names);
+			} catch (RuntimeException e) {
+				this.log.error("Shutdown listener {} failed", listener, e);
+			}
+		}
+
+		Map<Bundle, CompletableFuture<Result>> results = new HashMap<>();
+		AtomicInteger completed = new AtomicInteger();
+
+		for (Bundle bundle : dependents.keySet()) {
+			this.stopAfterDependents(bundle, dependents, results, new HashSet<>(), completed);
+		}
+	}
+
+	private CompletableFuture<Result> stopAfterDependents(Bundle bundle, Map<Bundle, List<Bundle>> dependents,
+			Map<Bundle, CompletableFuture<Result>> results, Set<Bundle> visiting, AtomicInteger completed) {
+
+		CompletableFuture<Result> result = results.get(bundle);
+
+		if (result != null) {
+			return result;
+		}
+
+		visiting.add(bundle);
+
+		List<CompletableFuture<Result>> before = new ArrayList<>();
+		for (Bundle dependent : dependents.get(bundle)) {
+			// bundles wired to each other in a cycle are stopped in no particular order
+			if (!visiting.contains(dependent)) {
+				before.add(this.stopAfterDependents(dependent, dependents, results, visiting, completed));
+			}
+		}
+
+		visiting.remove(bundle);
+
+		int total = dependents.size();
+		String name = bundle.getSymbolicName();
+
+		result = CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[before.size()]))
+				.thenCompose(v -> this.stop(bundle));
+		result.thenAccept(r -> this.stopped(name, r, completed.incrementAndGet(), total));
+		results.put(bundle, result);
+
+		return result;
+	}
+
+	private CompletableFuture<Result> stop(Bundle bundle) {
+
+		CompletableFuture<Result> result = new CompletableFuture<>();
+		String name = bundle.getSymbolicName();
+
+		Threads.newThreadFactory("IoCFX Bundle Stopper #", this.virtualThreads).newThread(() -> {
+			try {
+				bundle.stop();
+				result.complete(Result.STOPPED);
+			} catch (BundleException | RuntimeException e) {
+				this.log.error("Could not stop bundle {}", name, e);
+				result.complete(Result.FAILED);
+			}
+		}).start();
+
+		if (this.stopTimeout > 0) {
+			try {
+				ScheduledFuture<?> timeout = this.executor.schedule(() -> {
+					if (result.complete(Result.TIMED_OUT)) {
+						this.log.error("Bundle {} did not stop within {} ms", name, this.stopTimeout);
+					}
+				}, this.stopTimeout, TimeUnit.MILLISECONDS);
+				result.whenComplete((r, e) -> timeout.cancel(false));
+			} catch (RuntimeException e) {
+				// the executor has already been shut down, e.g. because IoCFX is being stopped
+			}
+		}
+
+		return result;
+	}
+
+	private void stopped(String bundle, Result result, int completed, int total) {
+		for (BundleShutdownListener listener : this.listeners) {
+			try {
+				listener.bundleStopped(bundle, result, completed, total);
+			} catch (RuntimeException e) {
+				this.log.error("Shutdown listener {} failed", listener, e);
+			}
+		}
 	}
 }
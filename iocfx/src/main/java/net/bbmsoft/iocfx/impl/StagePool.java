@@ -0,0 +1,225 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+import net.bbmsoft.iocfx.Platform;
+
+/**
+ * Keeps a number of pre-created, hidden {@link Stage Stages} around, so that
+ * {@link StageServiceImpl} instances can be handed a stage without waiting for
+ * the JavaFX Application Thread.
+ * <p>
+ * A stage has a lot of state that can't be reset reliably, e.g. event handlers
+ * and filters added by its user. Stages that have been handed out to a user
+ * therefore have to be {@link #dispose(Stage) disposed}; only stages IoCFX has
+ * acquired but never passed on may be {@link #release(Stage) released} back
+ * into the pool. The pool mainly saves the time needed to create a stage on the
+ * JavaFX Application Thread when one is requested. The pool is refilled in the
+ * background after every acquisition. Stages that sit in the pool unused for
+ * longer than the configured idle timeout are dropped.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = StagePool.class)
+public class StagePool {
+
+	public static final String POOL_SIZE = "net.bbmsoft.iocfx.stages.poolSize";
+	public static final String IDLE_TIMEOUT = "net.bbmsoft.iocfx.stages.idleTimeoutMillis";
+
+	private static final String SHOWN = StagePool.class.getName() + ".shown";
+
+	private static final ChangeListener<Boolean> SHOWN_TRACKER = (obs, wasShowing, showing) -> {
+		if (showing) {
+			Window window = (Window) ((ReadOnlyProperty<?>) obs).getBean();
+			window.getProperties().put(SHOWN, true);
+		}
+	};
+
+	private final Deque<PooledStage> pool;
+	private final AtomicBoolean refillScheduled;
+
+	@Reference
+	private Platform platform;
+
+	private ScheduledExecutorService evictor;
+
+	private int poolSize;
+
+	private long idleTimeout;
+
+	private volatile boolean active;
+
+	public StagePool() {
+		this.pool = new ConcurrentLinkedDeque<>();
+		this.refillScheduled = new AtomicBoolean();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+
+		this.poolSize = Math.max(0, FrameworkProperties.getInt(ctx, POOL_SIZE, 2));
+		long idleTimeoutMillis = FrameworkProperties.getLong(ctx, IDLE_TIMEOUT, 60_000);
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+		this.active = true;
+
+		if (idleTimeoutMillis > 0) {
+			this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "IoCFX Stage Pool Evictor");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long interval = Math.max(1, idleTimeoutMillis / 2);
+			this.evictor.scheduleWithFixedDelay(this::evictIdleStages, interval, interval, TimeUnit.MILLISECONDS);
+		}
+
+		this.scheduleRefill();
+	}
+
+	@Deactivate
+	public void deactivate() {
+
+		this.active = false;
+
+		if (this.evictor != null) {
+			this.evictor.shutdownNow();
+		}
+
+		this.pool.clear();
+	}
+
+	/**
+	 * Acquires a stage. If the pool is not empty, the returned future is already
+	 * completed, otherwise a new stage is created on the JavaFX Application
+	 * Thread.
+	 * 
+	 * @return a future that completes with a hidden, unused stage
+	 */
+	public CompletableFuture<Stage> acquire() {
+
+		PooledStage pooled = this.pool.pollFirst();
+		this.scheduleRefill();
+
+		if (pooled != null) {
+			return CompletableFuture.completedFuture(this.track(pooled.stage));
+		}
+
+		return this.platform.supplyOnFxThread(() -> this.track(new Stage()));
+	}
+
+	/**
+	 * Acquires a stage immediately. Must be called on the JavaFX Application
+	 * Thread.
+	 * 
+	 * @return a hidden, unused stage
+	 */
+	public Stage acquireNow() {
+
+		this.platform.assertFxApplicationThread();
+
+		PooledStage pooled = this.pool.pollFirst();
+		this.scheduleRefill();
+
+		return this.track(pooled != null ? pooled.stage : new Stage());
+	}
+
+	/**
+	 * Returns a stage that has never been handed out to a user to the pool. The
+	 * stage is closed instead if the pool is full or the stage turns out to have
+	 * been used after all.
+	 * 
+	 * @param stage
+	 *            a stage previously acquired from this pool
+	 */
+	public void release(Stage stage) {
+		this.platform.runOnFxApplicationThread(() -> this.recycle(stage));
+	}
+
+	/**
+	 * Closes a stage that has been handed out to a user. It is not returned to the
+	 * pool, since whatever its user changed would carry over to the next one.
+	 * 
+	 * @param stage
+	 *            a stage previously acquired from this pool
+	 */
+	public void dispose(Stage stage) {
+		this.platform.runOnFxApplicationThread(() -> {
+			stage.showingProperty().removeListener(SHOWN_TRACKER);
+			stage.close();
+		});
+	}
+
+	private Stage track(Stage stage) {
+		stage.showingProperty().addListener(SHOWN_TRACKER);
+		return stage;
+	}
+
+	private void recycle(Stage stage) {
+
+		stage.showingProperty().removeListener(SHOWN_TRACKER);
+
+		boolean reusable = this.active && this.pool.size() < this.poolSize
+				&& !stage.getProperties().containsKey(SHOWN) && stage.getScene() == null
+				&& stage.getStyle() == StageStyle.DECORATED && stage.getModality() == Modality.NONE
+				&& stage.getOwner() == null;
+
+		if (!reusable) {
+			stage.close();
+			return;
+		}
+
+		// only IoCFX itself has touched the stage, so this removes all its traces
+		stage.getProperties().clear();
+
+		this.pool.addLast(new PooledStage(stage, System.nanoTime()));
+	}
+
+	private void scheduleRefill() {
+		if (this.active && this.pool.size() < this.poolSize && this.refillScheduled.compareAndSet(false, true)) {
+			this.platform.runLater(this::refill);
+		}
+	}
+
+	private void refill() {
+
+		this.refillScheduled.set(false);
+
+		while (this.active && this.pool.size() < this.poolSize) {
+			this.pool.addLast(new PooledStage(new Stage(), System.nanoTime()));
+		}
+	}
+
+	private void evictIdleStages() {
+		long now = System.nanoTime();
+		this.pool.removeIf(p -> now - p.idleSince >= this.idleTimeout);
+	}
+
+	private static class PooledStage {
+
+		private final Stage stage;
+		private final long idleSince;
+
+		public PooledStage(Stage stage, long idleSince) {
+			this.stage = stage;
+			this.idleSince = idleSince;
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package net.bbmsoft.iocfx.impl;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
 
+import org.osgi.framework.Bundle;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -15,7 +17,7 @@ import net.bbmsoft.iocfx.StageService;
 @Component(scope = ServiceScope.PROTOTYPE)
 public class StageServiceImpl implements StageService {
 
-	private final AtomicReference<Stage> stage;
+	private final CompletableFuture<Stage> stage;
 
 	@Reference
 	private Platform platform;
@@ -23,25 +25,64 @@ public class StageServiceImpl implements StageService {
 	@Reference
 	private ShutdownPolicyHandler policyHandler;
 
+	@Reference
+	private StagePool pool;
+
+	@Reference
+	private StartupProfiler profiler;
+
+	@Reference
+	private SceneGraphRegistry sceneGraph;
+
+	private Bundle owner;
+
+	// a stage that has been handed out can't be reset reliably and must not go back
+	// to the pool
+	private volatile boolean handedOut;
+
 	public StageServiceImpl() {
-		this.stage = new AtomicReference<Stage>();
+		this.stage = new CompletableFuture<>();
 	}
 
 	@Override
 	public Stage getStage() {
-		return this.stage.get();
+		this.handedOut = true;
+		return this.stage();
+	}
+
+	private Stage stage() {
+
+		if (!this.stage.isDone() && this.platform.isFxApplicationThread()) {
+			// the stage may still be in the making behind the current task
+			this.initStage(this.pool.acquireNow());
+		}
+
+		return this.stage.join();
 	}
 
 	@Activate
-	public void activate() throws InterruptedException {
-		this.platform.runAndWait(this::createStage);
-		this.setExitPolicy(ExitPolicy.SHUTDOWN_ON_STAGE_EXIT);
+	public void activate(ComponentContext ctx) {
+		this.owner = ctx.getUsingBundle();
+		this.pool.acquire().whenComplete((stage, e) -> {
+			if (e != null) {
+				this.stage.completeExceptionally(e);
+			} else {
+				this.initStage(stage);
+			}
+		});
 	}
 
 	@Deactivate
 	public void deactivate() {
-		this.platform.runOnFxApplicationThread(this.stage.get()::close);
-		this.setExitPolicy(ExitPolicy.DO_NOTHING_ON_STAGE_EXIT);
+		this.stage.thenAccept(stage -> {
+			this.policyHandler.doNothingOnStageExit(stage);
+			this.sceneGraph.untrackStage(stage);
+			if (this.handedOut) {
+				this.pool.dispose(stage);
+			} else {
+				this.pool.release(stage);
+			}
+		});
 	}
 
 	@Override
@@ -49,21 +90,31 @@ public class StageServiceImpl implements StageService {
 
 		switch (policy) {
 		case DO_NOTHING_ON_STAGE_EXIT:
-			this.policyHandler.doNothingOnStageExit(this.getStage());
+			this.policyHandler.doNothingOnStageExit(this.stage());
 			break;
 		case SHUTDOWN_ON_STAGE_EXIT:
-			this.policyHandler.shutdownOnStageExit(this.getStage());
+			this.policyHandler.shutdownOnStageExit(this.stage());
 			break;
 		case STOP_BUNDLE_ON_STAGE_EXIT:
-			this.policyHandler.stopBundleOnStageExit(this.getStage(), bundleClasses);
+			this.policyHandler.stopBundleOnStageExit(this.stage(), bundleClasses);
 			break;
 		default:
 			throw new IllegalStateException("Unknown exit policy: " + policy);
 		}
 	}
 
-	private void createStage() {
-		this.stage.set(new Stage());
+	private synchronized void initStage(Stage stage) {
+
+		if (this.stage.isDone()) {
+			// getStage() was quicker and acquired a stage of its own
+			this.pool.release(stage);
+			return;
+		}
+
+		this.policyHandler.shutdownOnStageExit(stage);
+		this.profiler.track(stage);
+		this.sceneGraph.trackStage(this.owner, stage);
+		this.stage.complete(stage);
 	}
 
-}
\ No newline at end of file
+}
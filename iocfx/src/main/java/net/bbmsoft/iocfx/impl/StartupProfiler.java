@@ -0,0 +1,322 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.stage.Stage;
+import net.bbmsoft.iocfx.Fxml;
+import net.bbmsoft.iocfx.StartupReport;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+
+/**
+ * Records the timeline of the IoCFX startup and publishes it as a
+ * {@link StartupReport} service.
+ * <p>
+ * If the {@value #REPORT_FILE} framework property is set, the report is also
+ * written to the specified file as JSON, once when the first stage has been
+ * shown and again with all FXML loads recorded up to then when IoCFX is
+ * stopped.
+ *
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = { StartupProfiler.class, StartupReport.class })
+public class StartupProfiler implements StartupReport {
+
+	public static final String REPORT_FILE = "net.bbmsoft.iocfx.startup.reportFile";
+
+	// components that keep getting reloaded must not make the report grow forever
+	private static final int MAX_FXML_LOADS = 1024;
+
+	private final Map<String, Long> milestones;
+	private final List<FxmlLoad> fxmlLoads;
+
+	@Reference
+	private MinLogger log;
+
+	@Reference
+	private BackgroundExecutor executor;
+
+	private volatile long origin;
+
+	private volatile long jvmUptimeAtLaunch;
+
+	private Path reportFile;
+
+	public StartupProfiler() {
+		this.milestones = new LinkedHashMap<>();
+		this.fxmlLoads = new ArrayList<>();
+		this.origin = System.nanoTime();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+
+		String reportFile = ctx.getProperty(REPORT_FILE);
+		this.reportFile = reportFile != null && !reportFile.trim().isEmpty() ? Paths.get(reportFile.trim()) : null;
+
+		this.origin = System.nanoTime();
+		this.jvmUptimeAtLaunch = ManagementFactory.getRuntimeMXBean().getUptime();
+	}
+
+	@Deactivate
+	public void deactivate() {
+		if (this.reportFile != null) {
+			this.writeReport();
+		}
+	}
+
+	/**
+	 * Records that the specified milestone has been reached. Only the first time a
+	 * milestone is reached counts.
+	 *
+	 * @param milestone
+	 *            name of the milestone
+	 */
+	public void mark(String milestone) {
+		this.mark(milestone, System.nanoTime());
+	}
+
+	/**
+	 * Records that the specified milestone has been reached at the specified point
+	 * in time. Only the first time a milestone is reached counts.
+	 *
+	 * @param milestone
+	 *            name of the milestone
+	 * @param nanoTime
+	 *            {@link System#nanoTime()} at the moment the milestone was reached
+	 */
+	public void mark(String milestone, long nanoTime) {
+
+		long time = nanoTime - this.origin;
+
+		synchronized (this.milestones) {
+			if (this.milestones.containsKey(milestone)) {
+				return;
+			}
+			this.milestones.put(milestone, time);
+		}
+
+		this.log.info("Startup milestone '{}' reached after {} ms", milestone, time / 1_000_000);
+
+		if (FIRST_STAGE_SHOWN.equals(milestone) && this.reportFile != null) {
+			this.executor.execute(this::writeReport);
+		}
+	}
+
+	/**
+	 * Marks the {@value StartupReport#FIRST_STAGE_SHOWN} milestone as soon as the
+	 * specified stage is shown, unless another stage has been shown before.
+	 *
+	 * @param stage
+	 *            a stage that is about to be handed out
+	 */
+	public void track(Stage stage) {
+
+		if (this.isReached(FIRST_STAGE_SHOWN)) {
+			return;
+		}
+
+		stage.showingProperty().addListener(new ChangeListener<Boolean>() {
+			@Override
+			public void changed(ObservableValue<? extends Boolean> obs, Boolean wasShowing, Boolean showing) {
+				if (showing) {
+					obs.removeListener(this);
+					StartupProfiler.this.mark(FIRST_STAGE_SHOWN);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Records the loading of an FXML file. Once {@value #MAX_FXML_LOADS} loads have
+	 * been recorded, further loads are ignored.
+	 *
+	 * @param fxml
+	 *            the component whose FXML file has been loaded
+	 * @param start
+	 *            {@link System#nanoTime()} at the moment loading was scheduled
+	 * @param successful
+	 *            whether loading succeeded
+	 */
+	public void recordFxmlLoad(Fxml fxml, long start, boolean successful) {
+
+		long end = System.nanoTime();
+
+		synchronized (this.fxmlLoads) {
+			if (this.fxmlLoads.size() >= MAX_FXML_LOADS) {
+				return;
+			}
+		}
+
+		Object location = fxml.getLocation();
+		FxmlLoad load = new Load(fxml.getClass().getName(), location != null ? location.toString() : null,
+				start - this.origin, end - start, successful);
+
+		synchronized (this.fxmlLoads) {
+			if (this.fxmlLoads.size() < MAX_FXML_LOADS) {
+				this.fxmlLoads.add(load);
+			}
+		}
+	}
+
+	@Override
+	public long getJvmUptimeAtLaunch() {
+		return this.jvmUptimeAtLaunch;
+	}
+
+	@Override
+	public Map<String, Long> getMilestones() {
+		synchronized (this.milestones) {
+			return Collections.unmodifiableMap(new LinkedHashMap<>(this.milestones));
+		}
+	}
+
+	@Override
+	public long getTimeToFirstStage() {
+		synchronized (this.milestones) {
+			Long time = this.milestones.get(FIRST_STAGE_SHOWN);
+			return time != null ? time : -1;
+		}
+	}
+
+	@Override
+	public List<FxmlLoad> getFxmlLoads() {
+		synchronized (this.fxmlLoads) {
+			return Collections.unmodifiableList(new ArrayList<>(this.fxmlLoads));
+		}
+	}
+
+	private boolean isReached(String milestone) {
+		synchronized (this.milestones) {
+			return this.milestones.containsKey(milestone);
+		}
+	}
+
+	private synchronized void writeReport() {
+
+		try {
+			Path parent = this.reportFile.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			try (Writer writer = Files.newBufferedWriter(this.reportFile, StandardCharsets.UTF_8)) {
+				writer.write(this.toJson());
+			}
+		} catch (IOException e) {
+			this.log.error("Could not write startup report to {}", this.reportFile, e);
+		}
+	}
+
+	private String toJson() {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n");
+		sb.append("  \"jvmUptimeAtLaunchMillis\": ").append(this.jvmUptimeAtLaunch).append(",\n");
+		sb.append("  \"timeToFirstStageNanos\": ").append(this.getTimeToFirstStage()).append(",\n");
+
+		sb.append("  \"milestones\": {");
+		String separator = "\n";
+		for (Map.Entry<String, Long> e : this.getMilestones().entrySet()) {
+			sb.append(separator).append("    ").append(quote(e.getKey())).append(": ").append(e.getValue());
+			separator = ",\n";
+		}
+		sb.append("\n  },\n");
+
+		sb.append("  \"fxmlLoads\": [");
+		separator = "\n";
+		for (FxmlLoad load : this.getFxmlLoads()) {
+			sb.append(separator).append("    {");
+			sb.append("\"component\": ").append(quote(load.getComponent())).append(", ");
+			sb.append("\"location\": ").append(quote(load.getLocation())).append(", ");
+			sb.append("\"startNanos\": ").append(load.getStart()).append(", ");
+			sb.append("\"durationNanos\": ").append(load.getDuration()).append(", ");
+			sb.append("\"successful\": ").append(load.isSuccessful()).append("}");
+			separator = ",\n";
+		}
+		sb.append("\n  ]\n");
+		sb.append("}\n");
+
+		return sb.toString();
+	}
+
+	private static String quote(String value) {
+
+		if (value == null) {
+			return "null";
+		}
+
+		StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static class Load implements FxmlLoad {
+
+		private final String component;
+		private final String location;
+		private final long start;
+		private final long duration;
+		private final boolean successful;
+
+		public Load(String component, String location, long start, long duration, boolean successful) {
+			this.component = component;
+			this.location = location;
+			this.start = start;
+			this.duration = duration;
+			this.successful = successful;
+		}
+
+		@Override
+		public String getComponent() {
+			return this.component;
+		}
+
+		@Override
+		public String getLocation() {
+			return this.location;
+		}
+
+		@Override
+		public long getStart() {
+			return this.start;
+		}
+
+		@Override
+		public long getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public boolean isSuccessful() {
+			return this.successful;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package net.bbmsoft.iocfx.impl;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.osgi.framework.BundleContext;
+
+/**
+ * Creates the threads IoCFX runs its background work on. If the
+ * {@value #VIRTUAL_THREADS} framework property is set to {@code true} and the
+ * JVM supports them (Java 21 or newer), virtual threads are used, which makes
+ * it cheap to have a large number of tasks blocked waiting for the JavaFX
+ * Application Thread. Otherwise daemon platform threads are used.
+ * <p>
+ * Virtual threads are looked up reflectively, so IoCFX still runs on older
+ * Java versions.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public final class Threads {
+
+	public static final String VIRTUAL_THREADS = "net.bbmsoft.iocfx.virtualThreads";
+
+	private Threads() {
+		// static helper
+	}
+
+	/**
+	 * @param ctx
+	 *            the bundle context to read the framework properties from
+	 * @return {@code true} if virtual threads have been requested and are
+	 *         supported by the JVM
+	 */
+	public static boolean useVirtualThreads(BundleContext ctx) {
+		return FrameworkProperties.getBoolean(ctx, VIRTUAL_THREADS, false) && virtualThreadFactory("") != null;
+	}
+
+	/**
+	 * Creates an executor for background tasks. Virtual threads are not pooled,
+	 * every task gets its own thread. Platform threads are pooled.
+	 *
+	 * @param namePrefix
+	 *            prefix of the thread names, followed by a running number
+	 * @param poolSize
+	 *            the number of platform threads, ignored for virtual threads
+	 * @param virtual
+	 *            whether to use virtual threads if supported
+	 * @return the executor
+	 */
+	public static ExecutorService newExecutor(String namePrefix, int poolSize, boolean virtual) {
+
+		if (virtual) {
+			ThreadFactory factory = virtualThreadFactory(namePrefix);
+			if (factory != null) {
+				try {
+					return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+							.invoke(null, factory);
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					// fall back to platform threads
+				}
+			}
+		}
+
+		return Executors.newFixedThreadPool(poolSize, newThreadFactory(namePrefix, false));
+	}
+
+	/**
+	 * @param namePrefix
+	 *            prefix of the thread names, followed by a running number
+	 * @param virtual
+	 *            whether to create virtual threads if supported
+	 * @return a factory for virtual or daemon platform threads
+	 */
+	public static ThreadFactory newThreadFactory(String namePrefix, boolean virtual) {
+
+		ThreadFactory factory = virtual ? virtualThreadFactory(namePrefix) : null;
+
+		return factory != null ? factory : new PlatformThreadFactory(namePrefix);
+	}
+
+	/**
+	 * Creates and starts a single thread.
+	 *
+	 * @param name
+	 *            the name of the thread
+	 * @param task
+	 *            the task to run
+	 * @param virtual
+	 *            whether to use a virtual thread if supported
+	 * @return the started thread
+	 */
+	public static Thread start(String name, Runnable task, boolean virtual) {
+
+		ThreadFactory factory = virtual ? virtualThreadFactory(name) : null;
+		Thread thread;
+
+		if (factory != null) {
+			thread = factory.newThread(task);
+			thread.setName(name);
+		} else {
+			thread = new Thread(task, name);
+		}
+
+		thread.start();
+		return thread;
+	}
+
+	private static ThreadFactory virtualThreadFactory(String namePrefix) {
+		try {
+			// Thread.ofVirtual().name(namePrefix, 1).factory()
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// not supported or only available as a preview feature
+			return null;
+		}
+	}
+
+	private static class PlatformThreadFactory implements ThreadFactory {
+
+		private final String namePrefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		public PlatformThreadFactory(String namePrefix) {
+			this.namePrefix = namePrefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, this.namePrefix + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package net.bbmsoft.iocfx.log.impl;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link MinLogger} that writes to {@link System#out} and {@link System#err}
+ * on a background thread. Log calls only claim a slot in a bounded ring
+ * buffer and store the message pattern and its arguments there, formatting
+ * happens on the writer thread. If the ring buffer is full, the message is
+ * dropped rather than blocking the caller and the number of dropped messages
+ * is reported once the writer has caught up.
+ * <p>
+ * Messages below the configured {@link Level} are discarded right away without
+ * allocating anything.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public class AsyncMinLogger implements MinLogger {
+
+	public enum Level {
+		INFO, ERROR, OFF
+	}
+
+	private static final long IDLE_PARK_NANOS = 100_000_000L;
+
+	private final Level level;
+	private final Entry[] entries;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final Thread writer;
+
+	private long head;
+
+	private volatile boolean running;
+
+	private volatile boolean writerParked;
+
+	/**
+	 * @param level
+	 *            the lowest level that is logged
+	 * @param capacity
+	 *            the number of messages that can be buffered; rounded up to the
+	 *            next power of two
+	 */
+	public AsyncMinLogger(Level level, int capacity) {
+
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+		this.level = level;
+		this.entries = new Entry[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.tail = new AtomicLong();
+		this.dropped = new AtomicLong();
+
+		for (int i = 0; i < size; i++) {
+			this.entries[i] = new Entry();
+			this.sequences.set(i, i);
+		}
+
+		this.running = true;
+		this.writer = new Thread(this::write, "IoCFX Log Writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Stops the writer thread after all buffered messages have been written.
+	 */
+	public void close() {
+
+		this.running = false;
+		LockSupport.unpark(this.writer);
+
+		try {
+			this.writer.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isInfoEnabled() {
+		return this.level == Level.INFO;
+	}
+
+	@Override
+	public boolean isErrorEnabled() {
+		return this.level != Level.OFF;
+	}
+
+	@Override
+	public void info(String message) {
+		if (this.isInfoEnabled()) {
+			this.publish(false, message, 0, null, null, null);
+		}
+	}
+
+	@Override
+	public void info(String format, Object arg) {
+		if (this.isInfoEnabled()) {
+			this.publish(false, format, 1, arg, null, null);
+		}
+	}
+
+	@Override
+	public void info(String format, Object arg1, Object arg2) {
+		if (this.isInfoEnabled()) {
+			this.publish(false, format, 2, arg1, arg2, null);
+		}
+	}
+
+	@Override
+	public void error(String message) {
+		if (this.isErrorEnabled()) {
+			this.publish(true, message, 0, null, null, null);
+		}
+	}
+
+	@Override
+	public void error(String message, Throwable e) {
+		if (this.isErrorEnabled()) {
+			this.publish(true, message, 0, null, null, e);
+		}
+	}
+
+	@Override
+	public void error(String format, Object arg) {
+		if (this.isErrorEnabled()) {
+			this.publish(true, format, 1, arg, null, null);
+		}
+	}
+
+	@Override
+	public void error(String format, Object arg1, Object arg2) {
+		if (this.isErrorEnabled()) {
+			this.publish(true, format, 2, arg1, arg2, null);
+		}
+	}
+
+	@Override
+	public void error(String format, Object arg, Throwable e) {
+		if (this.isErrorEnabled()) {
+			this.publish(true, format, 1, arg, null, e);
+		}
+	}
+
+	private void publish(boolean error, String format, int argCount, Object arg1, Object arg2, Throwable e) {
+
+		long position;
+		int index;
+
+		// bounded multi-producer queue: a slot is free once its sequence equals the
+		// position that is about to be claimed
+		do {
+			position = this.tail.get();
+			index = (int) (position & this.mask);
+			if (this.sequences.get(index) != position) {
+				if (this.sequences.get(index) < position) {
+					this.dropped.incrementAndGet();
+					return;
+				}
+				continue;
+			}
+		} while (!this.tail.compareAndSet(position, position + 1));
+
+		Entry entry = this.entries[index];
+		entry.error = error;
+		entry.format = format;
+		entry.argCount = argCount;
+		entry.arg1 = arg1;
+		entry.arg2 = arg2;
+		entry.throwable = e;
+
+		this.sequences.lazySet(index, position + 1);
+
+		if (this.writerParked) {
+			LockSupport.unpark(this.writer);
+		}
+	}
+
+	private void write() {
+
+		while (this.running || this.hasNext()) {
+
+			if (!this.writeNext()) {
+
+				long dropped = this.dropped.getAndSet(0);
+				if (dropped > 0) {
+					System.err.println(dropped + " log messages have been dropped.");
+				}
+
+				// a message published while going to sleep will at worst be written once
+				// the park times out
+				this.writerParked = true;
+				if (this.running && !this.hasNext()) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+				this.writerParked = false;
+			}
+		}
+	}
+
+	private boolean hasNext() {
+		return this.sequences.get((int) (this.head & this.mask)) == this.head + 1;
+	}
+
+	private boolean writeNext() {
+
+		if (!this.hasNext()) {
+			return false;
+		}
+
+		int index = (int) (this.head & this.mask);
+		Entry entry = this.entries[index];
+
+		boolean error = entry.error;
+		String message = MessageFormatter.format(entry.format, entry.argCount, entry.arg1, entry.arg2);
+		Throwable throwable = entry.throwable;
+
+		entry.format = null;
+		entry.arg1 = null;
+		entry.arg2 = null;
+		entry.throwable = null;
+
+		this.sequences.lazySet(index, this.head + this.entries.length);
+		this.head++;
+
+		PrintStream out = error ? System.err : System.out;
+		out.println(message);
+		if (throwable != null) {
+			throwable.printStackTrace(out);
+		}
+
+		return true;
+	}
+
+	private static class Entry {
+		private boolean error;
+		private String format;
+		private int argCount;
+		private Object arg1;
+		private Object arg2;
+		private Throwable throwable;
+	}
+}
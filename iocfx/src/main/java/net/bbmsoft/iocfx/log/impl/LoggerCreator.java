@@ -1,12 +1,26 @@
 package net.bbmsoft.iocfx.log.impl;
 
+import java.util.Locale;
+
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import net.bbmsoft.iocfx.log.impl.AsyncMinLogger.Level;
 
 @Component
 public class LoggerCreator {
 
+	public static final String LOG_LEVEL = "net.bbmsoft.iocfx.log.level";
+
+	private static final int BUFFER_SIZE = 1024;
+
+	private ServiceRegistration<MinLogger> registration;
+
+	private AsyncMinLogger fallbackLogger;
+
 	@Activate
 	public void activate(BundleContext ctx) {
 
@@ -15,28 +29,40 @@ public class LoggerCreator {
 		try {
 			logger = new Slf4jMinLogger();
 		} catch (NoClassDefFoundError | ClassNotFoundException e) {
-			
-			logger = new MinLogger() {
-
-				@Override
-				public void info(String message) {
-					System.out.println(message);
-				}
-
-				@Override
-				public void error(String message) {
-					System.err.println(message);
-				}
-
-				@Override
-				public void error(String message, Throwable e) {
-					System.err.println(message);
-					e.printStackTrace();
-				}
-			};
+			this.fallbackLogger = new AsyncMinLogger(getLevel(ctx), BUFFER_SIZE);
+			logger = this.fallbackLogger;
 		}
 
-		ctx.registerService(MinLogger.class, logger, null);
+		this.registration = ctx.registerService(MinLogger.class, logger, null);
+	}
+
+	@Deactivate
+	public void deactivate() {
+
+		try {
+			this.registration.unregister();
+		} catch (IllegalStateException e) {
+			// ignore, the bundle has already been stopped
+		}
+
+		if (this.fallbackLogger != null) {
+			this.fallbackLogger.close();
+		}
+	}
+
+	private Level getLevel(BundleContext ctx) {
+
+		String level = ctx.getProperty(LOG_LEVEL);
+
+		if (level == null) {
+			return Level.INFO;
+		}
+
+		try {
+			return Level.valueOf(level.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			return Level.INFO;
+		}
 	}
 
 }
@@ -0,0 +1,43 @@
+package net.bbmsoft.iocfx.log.impl;
+
+/**
+ * Formats parameterized log messages using {@code {}} as placeholders.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public final class MessageFormatter {
+
+	private MessageFormatter() {
+		// static helper
+	}
+
+	public static String format(String format, Object arg) {
+		return format(format, 1, arg, null);
+	}
+
+	public static String format(String format, Object arg1, Object arg2) {
+		return format(format, 2, arg1, arg2);
+	}
+
+	static String format(String format, int argCount, Object arg1, Object arg2) {
+
+		if (format == null || argCount == 0) {
+			return format;
+		}
+
+		StringBuilder sb = new StringBuilder(format.length() + 32);
+		int from = 0;
+
+		for (int i = 0; i < argCount; i++) {
+			int placeholder = format.indexOf("{}", from);
+			if (placeholder < 0) {
+				break;
+			}
+			sb.append(format, from, placeholder).append(i == 0 ? arg1 : arg2);
+			from = placeholder + 2;
+		}
+
+		return sb.append(format, from, format.length()).toString();
+	}
+}
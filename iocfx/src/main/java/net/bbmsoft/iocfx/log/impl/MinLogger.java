@@ -1,10 +1,75 @@
 package net.bbmsoft.iocfx.log.impl;
 
+import java.util.function.Supplier;
+
+/**
+ * Minimal logging facade used by IoCFX. Besides plain messages it accepts lazy
+ * message suppliers and parameterized messages using {@code {}} as
+ * placeholders, both of which are only evaluated if the respective level is
+ * enabled, so callers on hot paths like the JavaFX Application Thread don't pay
+ * for building messages nobody reads.
+ */
 public interface MinLogger {
 
 	public void info(String message);
-	
+
 	public void error(String message);
 
 	public void error(String message, Throwable e);
+
+	public default boolean isInfoEnabled() {
+		return true;
+	}
+
+	public default boolean isErrorEnabled() {
+		return true;
+	}
+
+	public default void info(Supplier<String> message) {
+		if (this.isInfoEnabled()) {
+			this.info(message.get());
+		}
+	}
+
+	public default void info(String format, Object arg) {
+		if (this.isInfoEnabled()) {
+			this.info(MessageFormatter.format(format, arg));
+		}
+	}
+
+	public default void info(String format, Object arg1, Object arg2) {
+		if (this.isInfoEnabled()) {
+			this.info(MessageFormatter.format(format, arg1, arg2));
+		}
+	}
+
+	public default void error(Supplier<String> message) {
+		if (this.isErrorEnabled()) {
+			this.error(message.get());
+		}
+	}
+
+	public default void error(String format, Object arg) {
+		if (this.isErrorEnabled()) {
+			this.error(MessageFormatter.format(format, arg));
+		}
+	}
+
+	public default void error(String format, Object arg1, Object arg2) {
+		if (this.isErrorEnabled()) {
+			this.error(MessageFormatter.format(format, arg1, arg2));
+		}
+	}
+
+	public default void error(String format, Object arg, Throwable e) {
+		if (this.isErrorEnabled()) {
+			this.error(MessageFormatter.format(format, arg), e);
+		}
+	}
+
+	public default void error(String format, Object arg1, Object arg2, Throwable e) {
+		if (this.isErrorEnabled()) {
+			this.error(MessageFormatter.format(format, arg1, arg2), e);
+		}
+	}
 }
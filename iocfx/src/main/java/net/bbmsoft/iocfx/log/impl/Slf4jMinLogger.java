@@ -25,4 +25,39 @@ public class Slf4jMinLogger implements MinLogger {
 	public void error(String message, Throwable e) {
 		this.log.error(message, e);
 	}
+
+	@Override
+	public boolean isInfoEnabled() {
+		return this.log.isInfoEnabled();
+	}
+
+	@Override
+	public boolean isErrorEnabled() {
+		return this.log.isErrorEnabled();
+	}
+
+	@Override
+	public void info(String format, Object arg) {
+		this.log.info(format, arg);
+	}
+
+	@Override
+	public void info(String format, Object arg1, Object arg2) {
+		this.log.info(format, arg1, arg2);
+	}
+
+	@Override
+	public void error(String format, Object arg) {
+		this.log.error(format, arg);
+	}
+
+	@Override
+	public void error(String format, Object arg1, Object arg2) {
+		this.log.error(format, arg1, arg2);
+	}
+
+	@Override
+	public void error(String format, Object arg, Throwable e) {
+		this.log.error(format, arg, e);
+	}
 }
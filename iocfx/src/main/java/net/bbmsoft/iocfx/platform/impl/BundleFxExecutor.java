@@ -0,0 +1,129 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.bbmsoft.iocfx.FxExecutor;
+
+/**
+ * Runs tasks on the JavaFX Application Thread through a bundle's
+ * {@link PlatformWrapper} and keeps track of the ones that have not run yet, so
+ * they can be dropped once the bundle stops. Dropped tasks stay in the
+ * dispatcher's queue until their turn comes, but no longer reference the
+ * bundle's runnable.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class BundleFxExecutor implements FxExecutor {
+
+	private final PlatformWrapper platform;
+	private final FxExecutorFactory.Stats stats;
+	private final FxExecutorFactory factory;
+	private final Set<ScopedTask> pending;
+
+	private volatile boolean closed;
+
+	public BundleFxExecutor(PlatformWrapper platform, FxExecutorFactory.Stats stats, FxExecutorFactory factory) {
+		this.platform = platform;
+		this.stats = stats;
+		this.factory = factory;
+		this.pending = ConcurrentHashMap.newKeySet();
+	}
+
+	@Override
+	public void execute(Runnable command) {
+
+		Objects.requireNonNull(command);
+
+		if (this.closed) {
+			throw new RejectedExecutionException("Bundle " + this.stats.getSymbolicName() + " has been stopped.");
+		}
+
+		ScopedTask task = new ScopedTask(command);
+		this.pending.add(task);
+		this.stats.submitted.increment();
+
+		// close() might have missed the task if it ran in the meantime
+		if (this.closed && task.drop()) {
+			throw new RejectedExecutionException("Bundle " + this.stats.getSymbolicName() + " has been stopped.");
+		}
+
+		this.platform.runLater(task);
+	}
+
+	@Override
+	public BundleStats getStats() {
+		return this.stats;
+	}
+
+	@Override
+	public List<BundleStats> getStatsByBundle() {
+		return this.factory.getStatsByBundle();
+	}
+
+	/**
+	 * Drops all pending tasks and rejects any further ones.
+	 * 
+	 * @return the number of tasks that have been dropped
+	 */
+	int close() {
+
+		this.closed = true;
+
+		int dropped = 0;
+		for (ScopedTask task : this.pending) {
+			if (task.drop()) {
+				dropped++;
+			}
+		}
+
+		return dropped;
+	}
+
+	private class ScopedTask implements Runnable {
+
+		private final AtomicReference<Runnable> command;
+
+		public ScopedTask(Runnable command) {
+			this.command = new AtomicReference<>(command);
+		}
+
+		@Override
+		public void run() {
+
+			Runnable command = this.command.getAndSet(null);
+			BundleFxExecutor.this.pending.remove(this);
+
+			if (command == null) {
+				// dropped
+				return;
+			}
+
+			long start = System.nanoTime();
+
+			try {
+				command.run();
+			} finally {
+				BundleFxExecutor.this.stats.executionTime.add(System.nanoTime() - start);
+				BundleFxExecutor.this.stats.completed.increment();
+			}
+		}
+
+		private boolean drop() {
+
+			BundleFxExecutor.this.pending.remove(this);
+
+			if (this.command.getAndSet(null) == null) {
+				return false;
+			}
+
+			BundleFxExecutor.this.stats.dropped.increment();
+			return true;
+		}
+	}
+}
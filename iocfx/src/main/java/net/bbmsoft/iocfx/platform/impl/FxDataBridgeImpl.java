@@ -0,0 +1,83 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.Objects;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+import javafx.beans.value.WritableValue;
+import javafx.collections.ObservableList;
+import net.bbmsoft.iocfx.FxDataBridge;
+import net.bbmsoft.iocfx.Platform;
+import net.bbmsoft.iocfx.impl.FrameworkProperties;
+
+/**
+ * Creates sinks that apply buffered updates once per pulse. The defaults for
+ * {@link #listSink(ObservableList)} can be configured with the
+ * {@value #MAX_BATCH_SIZE}, {@value #CAPACITY} and {@value #OVERFLOW_POLICY}
+ * framework properties.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component
+public class FxDataBridgeImpl implements FxDataBridge {
+
+	public static final String MAX_BATCH_SIZE = "net.bbmsoft.iocfx.bridge.maxBatchSize";
+	public static final String CAPACITY = "net.bbmsoft.iocfx.bridge.capacity";
+	public static final String OVERFLOW_POLICY = "net.bbmsoft.iocfx.bridge.overflowPolicy";
+
+	@Reference
+	private Platform platform;
+
+	private int maxBatchSize;
+
+	private int capacity;
+
+	private OverflowPolicy policy;
+
+	private SinkFlusher flusher;
+
+	@Activate
+	public void activate(BundleContext ctx) {
+		this.flusher = new SinkFlusher(this.platform);
+		this.maxBatchSize = Math.max(1, FrameworkProperties.getInt(ctx, MAX_BATCH_SIZE, 1000));
+		this.capacity = Math.max(1, FrameworkProperties.getInt(ctx, CAPACITY, 100_000));
+		this.policy = FrameworkProperties.getEnum(ctx, OVERFLOW_POLICY, OverflowPolicy.class,
+				OverflowPolicy.DROP_OLDEST);
+	}
+
+	@Deactivate
+	public void deactivate() {
+		this.flusher.close();
+	}
+
+	@Override
+	public <T> ListSink<T> listSink(ObservableList<T> list) {
+		return this.listSink(list, this.maxBatchSize, this.capacity, this.policy);
+	}
+
+	@Override
+	public <T> ListSink<T> listSink(ObservableList<T> list, int maxBatchSize, int capacity, OverflowPolicy policy) {
+
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+		}
+
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+
+		Objects.requireNonNull(policy, "Overflow policy must not be null");
+
+		return new ListSinkImpl<>(this.platform, this.flusher, list, maxBatchSize, capacity, policy);
+	}
+
+	@Override
+	public <T> ValueSink<T> valueSink(WritableValue<T> value) {
+		return new ValueSinkImpl<>(this.flusher, value);
+	}
+}
@@ -0,0 +1,238 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.osgi.framework.Bundle;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import net.bbmsoft.iocfx.platform.impl.FxScheduler.Priority;
+
+/**
+ * Collects tasks for the JavaFX Application Thread in a lock-free queue and
+ * runs them in batches. Instead of posting every task to the JavaFX event queue
+ * individually, a single {@link Platform#runLater(Runnable)} call drains all
+ * tasks that have been queued up in the meantime. A batch stops once its time
+ * budget is used up. The remaining tasks wait for the next pulse, so the JavaFX
+ * Application Thread gets a chance to process input and render a frame in
+ * between; they are run from an {@link AnimationTimer}, i.e. at the start of
+ * that pulse.
+ * <p>
+ * Tasks are run by {@link Priority}, tasks of the same priority in the order
+ * they were submitted. Background tasks are only started during the first half
+ * of the budget, so they never take up a whole batch. The time every
+ * task spends in the queue and on the JavaFX Application Thread is recorded in
+ * the {@link PlatformMetricsImpl}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class FxDispatcher {
+
+	private final List<Queue<Task>> queues;
+	private final Map<Object, Runnable> coalesced;
+	private final AtomicBoolean scheduled;
+	private final long budgetNanos;
+	private final PlatformMetricsImpl metrics;
+
+	// only accessed on the JavaFX Application Thread
+	private AnimationTimer pulse;
+
+	/**
+	 * Creates a new dispatcher.
+	 * 
+	 * @param budgetNanos
+	 *            the maximum time a single batch may occupy the JavaFX Application
+	 *            Thread before the remaining tasks are deferred to the next batch.
+	 *            Zero or less means no limit.
+	 * @param metrics
+	 *            records statistics about the dispatched tasks
+	 */
+	public FxDispatcher(long budgetNanos, PlatformMetricsImpl metrics) {
+		this.queues = new ArrayList<>();
+		for (int i = 0; i < Priority.values().length; i++) {
+			this.queues.add(new ConcurrentLinkedQueue<>());
+		}
+		this.coalesced = new ConcurrentHashMap<>();
+		this.scheduled = new AtomicBoolean();
+		this.budgetNanos = budgetNanos;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Submits a task with {@link Priority#NORMAL normal} priority.
+	 * 
+	 * @param task
+	 *            the task
+	 * @param bundle
+	 *            the bundle submitting the task, may be {@code null}
+	 */
+	public void submit(Runnable task, Bundle bundle) {
+		this.submit(task, Priority.NORMAL, bundle);
+	}
+
+	/**
+	 * Submits a task.
+	 * 
+	 * @param task
+	 *            the task
+	 * @param priority
+	 *            the priority of the task
+	 * @param bundle
+	 *            the bundle submitting the task, may be {@code null}
+	 */
+	public void submit(Runnable task, Priority priority, Bundle bundle) {
+
+		this.metrics.enqueued();
+		this.queues.get(priority.ordinal()).add(new Task(task, bundle, System.nanoTime()));
+
+		if (this.scheduled.compareAndSet(false, true)) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Submits a task that replaces any task with the same key that has been
+	 * submitted earlier but has not run yet. The task keeps the queue position of
+	 * the first pending task with that key.
+	 * 
+	 * @param key
+	 *            the key identifying tasks that may replace each other
+	 * @param task
+	 *            the task
+	 * @param bundle
+	 *            the bundle submitting the task, may be {@code null}
+	 */
+	public void submitCoalesced(Object key, Runnable task, Bundle bundle) {
+
+		if (this.coalesced.put(key, task) == null) {
+			this.submit(() -> {
+				Runnable latest = this.coalesced.remove(key);
+				if (latest != null) {
+					latest.run();
+				}
+			}, bundle);
+		}
+	}
+
+	private void schedule() {
+		try {
+			Platform.runLater(this::drain);
+		} catch (RuntimeException e) {
+			this.scheduled.set(false);
+			throw e;
+		}
+	}
+
+	private void drain() {
+
+		long start = System.nanoTime();
+		boolean first = true;
+
+		while (true) {
+
+			// every batch runs at least one task, no matter how small the budget
+			Task task = this.next(first ? -1 : System.nanoTime() - start);
+
+			if (task == null) {
+
+				if (!this.isEmpty()) {
+					// the rest doesn't fit into this batch's budget
+					this.awaitPulse();
+					return;
+				}
+
+				this.scheduled.set(false);
+				// a task might have been added after the poll but before resetting the flag
+				if (this.isEmpty() || !this.scheduled.compareAndSet(false, true)) {
+					return;
+				}
+				continue;
+			}
+
+			this.metrics.dequeued();
+			run(task);
+			first = false;
+		}
+	}
+
+	private Task next(long elapsed) {
+
+		for (Priority priority : Priority.values()) {
+
+			if (this.budgetNanos > 0 && elapsed >= 0 && elapsed >= this.budget(priority)) {
+				continue;
+			}
+
+			Task task = this.queues.get(priority.ordinal()).poll();
+			if (task != null) {
+				return task;
+			}
+		}
+
+		return null;
+	}
+
+	private long budget(Priority priority) {
+		return priority == Priority.BACKGROUND ? this.budgetNanos / 2 : this.budgetNanos;
+	}
+
+	private void awaitPulse() {
+
+		if (this.pulse == null) {
+			// created lazily since it must be created on the JavaFX Application Thread
+			this.pulse = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					this.stop();
+					FxDispatcher.this.drain();
+				}
+			};
+		}
+
+		this.pulse.start();
+	}
+
+	private boolean isEmpty() {
+		for (Queue<Task> queue : this.queues) {
+			if (!queue.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void run(Task task) {
+
+		long started = System.nanoTime();
+
+		try {
+			task.runnable.run();
+		} catch (Throwable e) {
+			// don't let one failing task take the rest of the batch down with it
+			Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		} finally {
+			this.metrics.record(task.bundle, started - task.enqueued, System.nanoTime() - started);
+		}
+	}
+
+	private static class Task {
+
+		private final Runnable runnable;
+		private final Bundle bundle;
+		private final long enqueued;
+
+		public Task(Runnable runnable, Bundle bundle, long enqueued) {
+			this.runnable = runnable;
+			this.bundle = bundle;
+			this.enqueued = enqueued;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.ServiceFactory;
+import org.osgi.framework.ServiceRegistration;
+
+import net.bbmsoft.iocfx.FxExecutor;
+import net.bbmsoft.iocfx.FxExecutor.BundleStats;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+
+/**
+ * Provides every bundle with its own {@link BundleFxExecutor}. The framework
+ * releases a bundle's executor when the bundle stops, at which point all tasks
+ * it still has queued are dropped.
+ * <p>
+ * Statistics are kept per bundle ID and survive the bundle being stopped and
+ * restarted. They are dropped once the bundle is uninstalled, for which the
+ * factory needs to be registered as a {@link BundleListener}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class FxExecutorFactory implements ServiceFactory<FxExecutor>, BundleListener {
+
+	private final FxDispatcher dispatcher;
+	private final MinLogger log;
+	private final Map<Long, Stats> stats;
+
+	public FxExecutorFactory(FxDispatcher dispatcher, MinLogger log) {
+		this.dispatcher = dispatcher;
+		this.log = log;
+		this.stats = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public FxExecutor getService(Bundle bundle, ServiceRegistration<FxExecutor> registration) {
+		Stats stats = this.stats.computeIfAbsent(bundle.getBundleId(), id -> new Stats(bundle));
+		return new BundleFxExecutor(new PlatformWrapper(this.dispatcher, bundle), stats, this);
+	}
+
+	@Override
+	public void ungetService(Bundle bundle, ServiceRegistration<FxExecutor> registration, FxExecutor service) {
+
+		int dropped = ((BundleFxExecutor) service).close();
+
+		if (dropped > 0) {
+			this.log.info("Dropped {} pending FX task(s) of {}", dropped, bundle.getSymbolicName());
+		}
+	}
+
+	@Override
+	public void bundleChanged(BundleEvent event) {
+		if (event.getType() == BundleEvent.UNINSTALLED) {
+			this.stats.remove(event.getBundle().getBundleId());
+		}
+	}
+
+	List<BundleStats> getStatsByBundle() {
+		List<BundleStats> stats = new ArrayList<>(this.stats.values());
+		stats.sort(Comparator.comparingLong(BundleStats::getBundleId));
+		return stats;
+	}
+
+	static class Stats implements BundleStats {
+
+		private final long bundleId;
+		private final String symbolicName;
+
+		final LongAdder submitted;
+		final LongAdder completed;
+		final LongAdder dropped;
+		final LongAdder executionTime;
+
+		public Stats(Bundle bundle) {
+			this.bundleId = bundle.getBundleId();
+			this.symbolicName = bundle.getSymbolicName();
+			this.submitted = new LongAdder();
+			this.completed = new LongAdder();
+			this.dropped = new LongAdder();
+			this.executionTime = new LongAdder();
+		}
+
+		@Override
+		public long getBundleId() {
+			return this.bundleId;
+		}
+
+		@Override
+		public String getSymbolicName() {
+			return this.symbolicName;
+		}
+
+		@Override
+		public long getSubmitted() {
+			return this.submitted.sum();
+		}
+
+		@Override
+		public long getCompleted() {
+			return this.completed.sum();
+		}
+
+		@Override
+		public long getDropped() {
+			return this.dropped.sum();
+		}
+
+		@Override
+		public long getPending() {
+			// the counters are read one after the other, so don't report a negative value
+			return Math.max(0, this.getSubmitted() - this.getCompleted() - this.getDropped());
+		}
+
+		@Override
+		public long getExecutionTime() {
+			return this.executionTime.sum();
+		}
+
+		@Override
+		public String toString() {
+			return this.symbolicName + " [" + this.bundleId + "]: " + this.getSubmitted() + " submitted, "
+					+ this.getCompleted() + " completed, " + this.getDropped() + " dropped, "
+					+ this.getExecutionTime() / 1_000_000 + " ms on the FX thread";
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.osgi.framework.Bundle;
+
+/**
+ * Schedules work on the JavaFX Application Thread with a {@link Priority}.
+ * Tasks submitted through the {@link net.bbmsoft.iocfx.Platform} service have
+ * {@link Priority#NORMAL normal} priority. IoCFX components that do bulk work
+ * like loading FXML files use this service to submit it with
+ * {@link Priority#BACKGROUND background} priority instead, so it doesn't delay
+ * updates the user is waiting for.
+ * <p>
+ * The service is registered alongside the {@code Platform} service once the
+ * JavaFX Platform is up.
+ *
+ * @author Michael Bachmann
+ *
+ */
+public class FxScheduler {
+
+	/**
+	 * Priority classes of tasks for the JavaFX Application Thread. Within one
+	 * batch, tasks of a higher priority always run before tasks of a lower one.
+	 * Updates in response to user input are posted by applications through the
+	 * {@code Platform} service, so they run with normal priority, ahead of any
+	 * background work.
+	 */
+	public enum Priority {
+
+		/**
+		 * Regular tasks, e.g. submitted via {@code Platform.runLater}.
+		 */
+		NORMAL,
+
+		/**
+		 * Bulk work that may be deferred to a later pulse, like loading FXML files
+		 * or initializing components.
+		 */
+		BACKGROUND;
+	}
+
+	private final FxDispatcher dispatcher;
+
+	public FxScheduler(FxDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * Submits a task. Unlike
+	 * {@link net.bbmsoft.iocfx.Platform#runOnFxApplicationThread(Runnable)}, the
+	 * task is queued even if this is called on the JavaFX Application Thread so
+	 * that it can't overtake tasks of a higher priority.
+	 *
+	 * @param task
+	 *            the task
+	 * @param priority
+	 *            the priority of the task
+	 * @param bundle
+	 *            the bundle the task is submitted on behalf of, may be
+	 *            {@code null}
+	 */
+	public void submit(Runnable task, Priority priority, Bundle bundle) {
+		this.dispatcher.submit(task, priority, bundle);
+	}
+
+	/**
+	 * Runs a task on the JavaFX Application Thread.
+	 *
+	 * @param task
+	 *            the task
+	 * @param priority
+	 *            the priority of the task
+	 * @param bundle
+	 *            the bundle the task is submitted on behalf of, may be
+	 *            {@code null}
+	 * @return a future that is completed once the task has run
+	 */
+	public CompletableFuture<Void> runAsync(Runnable task, Priority priority, Bundle bundle) {
+		return this.supplyAsync(() -> {
+			task.run();
+			return null;
+		}, priority, bundle);
+	}
+
+	/**
+	 * Computes a value on the JavaFX Application Thread.
+	 *
+	 * @param supplier
+	 *            computes the value
+	 * @param priority
+	 *            the priority of the task
+	 * @param bundle
+	 *            the bundle the task is submitted on behalf of, may be
+	 *            {@code null}
+	 * @return a future that is completed with the computed value
+	 */
+	public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Priority priority, Bundle bundle) {
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+
+		this.submit(() -> {
+
+			if (future.isDone()) {
+				// cancelled before we got to it
+				return;
+			}
+
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}, priority, bundle);
+
+		return future;
+	}
+}
@@ -0,0 +1,63 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.function.Supplier;
+
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Keeps track of the service IoCFX is currently calling on the JavaFX
+ * Application Thread, so it can be named if that call stalls the thread.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component(service = FxThreadActivity.class)
+public class FxThreadActivity {
+
+	private volatile Object activeService;
+
+	/**
+	 * Runs the specified Runnable on the calling thread, recording the specified
+	 * service as active while it runs.
+	 * 
+	 * @param service
+	 *            the service on whose behalf the Runnable is run
+	 * @param runnable
+	 *            the Runnable
+	 */
+	public void run(Object service, Runnable runnable) {
+		this.call(service, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Invokes the specified Supplier on the calling thread, recording the
+	 * specified service as active while it runs.
+	 * 
+	 * @param service
+	 *            the service on whose behalf the Supplier is invoked
+	 * @param supplier
+	 *            the Supplier
+	 * @return the supplied value
+	 */
+	public <T> T call(Object service, Supplier<T> supplier) {
+
+		Object previous = this.activeService;
+		this.activeService = service;
+
+		try {
+			return supplier.get();
+		} finally {
+			this.activeService = previous;
+		}
+	}
+
+	/**
+	 * @return the service that is currently active or {@code null} if there is none
+	 */
+	public Object getActiveService() {
+		return this.activeService;
+	}
+}
@@ -0,0 +1,197 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+
+import net.bbmsoft.iocfx.FxThreadStallListener;
+import net.bbmsoft.iocfx.Platform;
+import net.bbmsoft.iocfx.impl.FrameworkProperties;
+import net.bbmsoft.iocfx.log.impl.MinLogger;
+
+/**
+ * Detects when the JavaFX Application Thread stops responding. A heartbeat
+ * task is posted through the {@link Platform} service and if it has not been
+ * run within the deadline configured with the {@value #DEADLINE} framework
+ * property, the stack of the JavaFX Application Thread is captured and
+ * reported to the log and all {@link FxThreadStallListener} services, along with
+ * the service IoCFX was calling at that moment. A deadline of zero disables the
+ * watchdog.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+@Component
+public class FxThreadWatchdog {
+
+	public static final String DEADLINE = "net.bbmsoft.iocfx.watchdog.deadlineMillis";
+
+	private static final String FX_THREAD_NAME = "JavaFX Application Thread";
+
+	private final List<FxThreadStallListener> listeners;
+
+	@Reference
+	private Platform platform;
+
+	@Reference
+	private MinLogger log;
+
+	@Reference
+	private FxThreadActivity activity;
+
+	private ScheduledExecutorService executor;
+
+	private long deadline;
+
+	private volatile Thread fxThread;
+
+	// only accessed from the watchdog thread
+	private Heartbeat pending;
+
+	public FxThreadWatchdog() {
+		this.listeners = new CopyOnWriteArrayList<>();
+	}
+
+	@Activate
+	public void activate(BundleContext ctx) {
+
+		long deadlineMillis = FrameworkProperties.getLong(ctx, DEADLINE, 2000);
+
+		if (deadlineMillis <= 0) {
+			return;
+		}
+
+		this.deadline = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "IoCFX FX Thread Watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long interval = Math.max(1, deadlineMillis / 4);
+		this.executor.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@Deactivate
+	public void deactivate() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+	}
+
+	@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+	public void addListener(FxThreadStallListener listener) {
+		this.listeners.add(listener);
+	}
+
+	public void removeListener(FxThreadStallListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	private void tick() {
+
+		long now = System.nanoTime();
+		Heartbeat heartbeat = this.pending;
+
+		if (heartbeat != null && !heartbeat.answered) {
+			if (!heartbeat.reported && now - heartbeat.posted >= this.deadline) {
+				heartbeat.reported = true;
+				this.stallDetected(TimeUnit.NANOSECONDS.toMillis(now - heartbeat.posted));
+			}
+			return;
+		}
+
+		if (heartbeat != null && heartbeat.reported) {
+			this.stallEnded(TimeUnit.NANOSECONDS.toMillis(heartbeat.answeredAt - heartbeat.posted));
+		}
+
+		Heartbeat next = new Heartbeat(now);
+		this.pending = next;
+		this.platform.runLater(() -> {
+			this.fxThread = Thread.currentThread();
+			next.answeredAt = System.nanoTime();
+			next.answered = true;
+		});
+	}
+
+	private void stallDetected(long duration) {
+
+		Object activeService = this.activity.getActiveService();
+		StackTraceElement[] stackTrace = this.getFxThreadStackTrace();
+
+		Throwable trace = new Throwable("Stack trace of the " + FX_THREAD_NAME);
+		trace.setStackTrace(stackTrace);
+
+		if (activeService != null) {
+			this.log.error("The JavaFX Application Thread has not responded for {} ms while running {}", duration,
+					activeService, trace);
+		} else {
+			this.log.error("The JavaFX Application Thread has not responded for {} ms", duration, trace);
+		}
+
+		for (FxThreadStallListener listener : this.listeners) {
+			try {
+				listener.stallDetected(duration, stackTrace, activeService);
+			} catch (RuntimeException e) {
+				this.log.error("Stall listener {} failed", listener, e);
+			}
+		}
+	}
+
+	private void stallEnded(long duration) {
+
+		this.log.info("The JavaFX Application Thread is responding again after {} ms", duration);
+
+		for (FxThreadStallListener listener : this.listeners) {
+			try {
+				listener.stallEnded(duration);
+			} catch (RuntimeException e) {
+				this.log.error("Stall listener {} failed", listener, e);
+			}
+		}
+	}
+
+	private StackTraceElement[] getFxThreadStackTrace() {
+
+		Thread fxThread = this.fxThread;
+
+		if (fxThread != null) {
+			return fxThread.getStackTrace();
+		}
+
+		// the FX thread got stuck before it answered its first heartbeat
+		for (Map.Entry<Thread, StackTraceElement[]> e : Thread.getAllStackTraces().entrySet()) {
+			if (FX_THREAD_NAME.equals(e.getKey().getName())) {
+				return e.getValue();
+			}
+		}
+
+		return new StackTraceElement[0];
+	}
+
+	private static class Heartbeat {
+
+		private final long posted;
+
+		private volatile long answeredAt;
+
+		private volatile boolean answered;
+
+		private boolean reported;
+
+		public Heartbeat(long posted) {
+			this.posted = posted;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javafx.collections.ObservableList;
+import net.bbmsoft.iocfx.FxDataBridge.ListSink;
+import net.bbmsoft.iocfx.FxDataBridge.OverflowPolicy;
+import net.bbmsoft.iocfx.Platform;
+
+/**
+ * Buffers writes to a list in a lock-free queue. The first write after a flush
+ * schedules the sink for the next pulse, which merges everything buffered until
+ * then into a single {@code addAll} or {@code setAll} call. Additions beyond the
+ * maximum batch size are left for the following pulse.
+ * <p>
+ * The number of buffered elements is only approximately limited to the
+ * capacity: a single write larger than the capacity is accepted if nothing
+ * else is buffered, and concurrent writers may briefly exceed it under the
+ * {@link OverflowPolicy#DROP_OLDEST DROP_OLDEST} policy.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class ListSinkImpl<T> implements ListSink<T>, SinkFlusher.Sink {
+
+	private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final Platform platform;
+	private final SinkFlusher flusher;
+	private final ObservableList<T> list;
+	private final int maxBatchSize;
+	private final int capacity;
+	private final OverflowPolicy policy;
+
+	private final Deque<Write<T>> writes;
+	private final AtomicInteger pending;
+	private final AtomicBoolean scheduled;
+	private final LongAdder dropped;
+
+	public ListSinkImpl(Platform platform, SinkFlusher flusher, ObservableList<T> list, int maxBatchSize,
+			int capacity, OverflowPolicy policy) {
+		this.platform = platform;
+		this.flusher = flusher;
+		this.list = list;
+		this.maxBatchSize = maxBatchSize;
+		this.capacity = capacity;
+		this.policy = policy;
+		this.writes = new ConcurrentLinkedDeque<>();
+		this.pending = new AtomicInteger();
+		this.scheduled = new AtomicBoolean();
+		this.dropped = new LongAdder();
+	}
+
+	@Override
+	public boolean add(T element) {
+		return this.write(new Write<>(Collections.singletonList(element), false));
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> elements) {
+		return elements.isEmpty() || this.write(new Write<>(new ArrayList<>(elements), false));
+	}
+
+	@Override
+	public boolean setAll(Collection<? extends T> elements) {
+		return this.write(new Write<>(new ArrayList<>(elements), true));
+	}
+
+	@Override
+	public int getPending() {
+		return Math.max(0, this.pending.get());
+	}
+
+	@Override
+	public long getDropped() {
+		return this.dropped.sum();
+	}
+
+	private boolean write(Write<T> write) {
+
+		int size = write.elements.size();
+
+		if (!this.reserve(size)) {
+			this.dropped.add(size);
+			return false;
+		}
+
+		this.writes.add(write);
+
+		if (this.policy == OverflowPolicy.DROP_OLDEST) {
+			this.trim(write);
+		}
+
+		this.schedule();
+
+		return true;
+	}
+
+	private boolean reserve(int size) {
+
+		switch (this.policy) {
+		case DROP_OLDEST:
+			this.pending.addAndGet(size);
+			return true;
+		case DROP_NEWEST:
+			return this.tryReserve(size);
+		default:
+			// blocking the JavaFX Application Thread would keep the buffer from ever being
+			// drained
+			if (this.platform.isFxApplicationThread()) {
+				this.pending.addAndGet(size);
+				return true;
+			}
+			while (!this.tryReserve(size)) {
+				this.schedule();
+				LockSupport.parkNanos(BACKOFF_NANOS);
+				if (Thread.currentThread().isInterrupted()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private boolean tryReserve(int size) {
+		while (true) {
+			int pending = this.pending.get();
+			if (pending > 0 && pending + size > this.capacity) {
+				return false;
+			}
+			if (this.pending.compareAndSet(pending, pending + size)) {
+				return true;
+			}
+		}
+	}
+
+	private void trim(Write<T> latest) {
+		for (Write<T> oldest : this.writes) {
+			if (this.pending.get() <= this.capacity || oldest == latest) {
+				return;
+			}
+			if (oldest.replace) {
+				// keep the write in place so the list still gets cleared at the right point,
+				// only drop its elements
+				if (!oldest.claim()) {
+					continue;
+				}
+			} else if (!this.writes.removeFirstOccurrence(oldest)) {
+				continue;
+			}
+			this.pending.addAndGet(-oldest.elements.size());
+			this.dropped.add(oldest.elements.size());
+		}
+	}
+
+	private void schedule() {
+		if (this.scheduled.compareAndSet(false, true)) {
+			this.flusher.schedule(this);
+		}
+	}
+
+	@Override
+	public void flush() {
+
+		this.scheduled.set(false);
+
+		boolean replace = false;
+		List<T> batch = new ArrayList<>();
+		int added = 0;
+		int consumed = 0;
+
+		for (Write<T> write; added < this.maxBatchSize && (write = this.writes.pollFirst()) != null;) {
+
+			List<T> elements = write.elements;
+
+			if (write.replace) {
+				// everything before is obsolete
+				batch.clear();
+				// unless its elements have been dropped already
+				if (write.claim()) {
+					batch.addAll(elements);
+					consumed += elements.size();
+				}
+				replace = true;
+				added = 0;
+				continue;
+			}
+
+			consumed += elements.size();
+
+			int room = this.maxBatchSize - added;
+
+			if (elements.size() > room) {
+				// put the rest back in front so it keeps its position
+				List<T> rest = new ArrayList<>(elements.subList(room, elements.size()));
+				this.writes.addFirst(new Write<>(rest, false));
+				consumed -= rest.size();
+				elements = elements.subList(0, room);
+			}
+
+			batch.addAll(elements);
+			added += elements.size();
+		}
+
+		this.pending.addAndGet(-consumed);
+
+		if (replace) {
+			this.list.setAll(batch);
+		} else if (!batch.isEmpty()) {
+			this.list.addAll(batch);
+		}
+
+		if (!this.writes.isEmpty()) {
+			this.schedule();
+		}
+	}
+
+	private static class Write<T> {
+
+		private final List<T> elements;
+		private final boolean replace;
+		// replacing writes are never removed before they are flushed, so whoever
+		// claims them accounts for their elements
+		private final AtomicBoolean claimed;
+
+		public Write(List<T> elements, boolean replace) {
+			this.elements = elements;
+			this.replace = replace;
+			this.claimed = new AtomicBoolean();
+		}
+
+		public boolean claim() {
+			return this.claimed.compareAndSet(false, true);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.bbmsoft.iocfx.PlatformMetrics.Histogram;
+
+/**
+ * A lock-free histogram of non-negative long values in the spirit of
+ * HdrHistogram. Values are sorted into buckets per power of two, each of which
+ * is split into {@value #SUB_BUCKETS} linear sub-buckets, which keeps the
+ * relative error of reported percentiles at about 6% with a fixed memory
+ * footprint.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class LogHistogram implements Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = 64 - SUB_BUCKET_BITS + 1;
+
+	private final AtomicLongArray counts;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final AtomicLong min;
+	private final AtomicLong max;
+
+	public LogHistogram() {
+		this.counts = new AtomicLongArray(BUCKETS * SUB_BUCKETS);
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.min = new AtomicLong(Long.MAX_VALUE);
+		this.max = new AtomicLong();
+	}
+
+	public void record(long value) {
+
+		long v = Math.max(0, value);
+
+		this.counts.incrementAndGet(indexOf(v));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(v);
+		this.min.accumulateAndGet(v, Math::min);
+		this.max.accumulateAndGet(v, Math::max);
+	}
+
+	/**
+	 * Creates a copy of this histogram that will not change anymore.
+	 * 
+	 * @return a snapshot of this histogram
+	 */
+	public LogHistogram snapshot() {
+
+		LogHistogram snapshot = new LogHistogram();
+
+		for (int i = 0; i < this.counts.length(); i++) {
+			snapshot.counts.set(i, this.counts.get(i));
+		}
+
+		snapshot.count.set(this.count.get());
+		snapshot.sum.set(this.sum.get());
+		snapshot.min.set(this.min.get());
+		snapshot.max.set(this.max.get());
+
+		return snapshot;
+	}
+
+	@Override
+	public long getCount() {
+		return this.count.get();
+	}
+
+	@Override
+	public long getMin() {
+		return this.count.get() > 0 ? this.min.get() : 0;
+	}
+
+	@Override
+	public long getMax() {
+		return this.max.get();
+	}
+
+	@Override
+	public double getMean() {
+		long count = this.count.get();
+		return count > 0 ? (double) this.sum.get() / count : 0;
+	}
+
+	@Override
+	public long getValueAtPercentile(double percentile) {
+
+		long count = this.count.get();
+
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count);
+		long seen = 0;
+
+		for (int i = 0; i < this.counts.length(); i++) {
+			seen += this.counts.get(i);
+			if (seen >= Math.max(1, rank)) {
+				return Math.min(upperBoundOf(i), this.max.get());
+			}
+		}
+
+		return this.max.get();
+	}
+
+	private static int indexOf(long value) {
+
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		// the highest bit selects the bucket, the next SUB_BUCKET_BITS bits the sub-bucket
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long upperBoundOf(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = index / SUB_BUCKETS - 1;
+		long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
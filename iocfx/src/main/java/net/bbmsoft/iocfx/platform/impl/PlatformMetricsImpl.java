@@ -0,0 +1,161 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.framework.Bundle;
+
+import net.bbmsoft.iocfx.PlatformMetrics;
+
+/**
+ * Records statistics about the tasks run by the {@link FxDispatcher}.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class PlatformMetricsImpl implements PlatformMetrics {
+
+	private static final int MAX_RECENT_LONG_RUNNING_TASKS = 64;
+
+	private final long longRunningThreshold;
+	private final AtomicInteger queueDepth;
+	private final LogHistogram latency;
+	private final LogHistogram executionTime;
+	private final AtomicLong longRunningTasks;
+	private final Map<String, AtomicLong> longRunningTasksByBundle;
+	private final Deque<TaskRecord> recentLongRunningTasks;
+
+	public PlatformMetricsImpl(long longRunningThreshold) {
+		this.longRunningThreshold = longRunningThreshold;
+		this.queueDepth = new AtomicInteger();
+		this.latency = new LogHistogram();
+		this.executionTime = new LogHistogram();
+		this.longRunningTasks = new AtomicLong();
+		this.longRunningTasksByBundle = new ConcurrentHashMap<>();
+		this.recentLongRunningTasks = new ArrayDeque<>();
+	}
+
+	void enqueued() {
+		this.queueDepth.incrementAndGet();
+	}
+
+	void dequeued() {
+		this.queueDepth.decrementAndGet();
+	}
+
+	void record(Bundle bundle, long latency, long executionTime) {
+
+		this.latency.record(latency);
+		this.executionTime.record(executionTime);
+
+		if (executionTime >= this.longRunningThreshold) {
+
+			Record record = new Record(bundle, latency, executionTime, System.currentTimeMillis());
+
+			this.longRunningTasks.incrementAndGet();
+			this.longRunningTasksByBundle.computeIfAbsent(String.valueOf(record.symbolicName), n -> new AtomicLong())
+					.incrementAndGet();
+
+			synchronized (this.recentLongRunningTasks) {
+				if (this.recentLongRunningTasks.size() == MAX_RECENT_LONG_RUNNING_TASKS) {
+					this.recentLongRunningTasks.removeFirst();
+				}
+				this.recentLongRunningTasks.addLast(record);
+			}
+		}
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return Math.max(0, this.queueDepth.get());
+	}
+
+	@Override
+	public Histogram getLatencyHistogram() {
+		return this.latency.snapshot();
+	}
+
+	@Override
+	public Histogram getExecutionTimeHistogram() {
+		return this.executionTime.snapshot();
+	}
+
+	@Override
+	public long getLongRunningThreshold() {
+		return this.longRunningThreshold;
+	}
+
+	@Override
+	public long getLongRunningTaskCount() {
+		return this.longRunningTasks.get();
+	}
+
+	@Override
+	public Map<String, Long> getLongRunningTaskCountsByBundle() {
+		Map<String, Long> counts = new HashMap<>();
+		this.longRunningTasksByBundle.forEach((name, count) -> counts.put(name, count.get()));
+		return counts;
+	}
+
+	@Override
+	public List<TaskRecord> getRecentLongRunningTasks() {
+		synchronized (this.recentLongRunningTasks) {
+			return new ArrayList<>(this.recentLongRunningTasks);
+		}
+	}
+
+	private static class Record implements TaskRecord {
+
+		private final long bundleId;
+		private final String symbolicName;
+		private final long latency;
+		private final long executionTime;
+		private final long timestamp;
+
+		public Record(Bundle bundle, long latency, long executionTime, long timestamp) {
+			this.bundleId = bundle != null ? bundle.getBundleId() : -1;
+			this.symbolicName = bundle != null ? bundle.getSymbolicName() : null;
+			this.latency = latency;
+			this.executionTime = executionTime;
+			this.timestamp = timestamp;
+		}
+
+		@Override
+		public long getBundleId() {
+			return this.bundleId;
+		}
+
+		@Override
+		public String getBundleSymbolicName() {
+			return this.symbolicName;
+		}
+
+		@Override
+		public long getLatency() {
+			return this.latency;
+		}
+
+		@Override
+		public long getExecutionTime() {
+			return this.executionTime;
+		}
+
+		@Override
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		@Override
+		public String toString() {
+			return this.symbolicName + " [" + this.bundleId + "]: waited " + this.latency / 1_000_000 + " ms, ran "
+					+ this.executionTime / 1_000_000 + " ms";
+		}
+	}
+}
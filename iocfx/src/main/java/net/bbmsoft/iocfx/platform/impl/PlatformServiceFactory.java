@@ -0,0 +1,33 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceFactory;
+import org.osgi.framework.ServiceRegistration;
+
+import net.bbmsoft.iocfx.Platform;
+
+/**
+ * Provides every bundle with its own {@link PlatformWrapper}, so tasks
+ * submitted through it can be attributed to that bundle.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+public class PlatformServiceFactory implements ServiceFactory<Platform> {
+
+	private final FxDispatcher dispatcher;
+
+	public PlatformServiceFactory(FxDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
+	}
+
+	@Override
+	public Platform getService(Bundle bundle, ServiceRegistration<Platform> registration) {
+		return new PlatformWrapper(this.dispatcher, bundle);
+	}
+
+	@Override
+	public void ungetService(Bundle bundle, ServiceRegistration<Platform> registration, Platform service) {
+		// nothing to clean up
+	}
+}
@@ -1,6 +1,8 @@
 package net.bbmsoft.iocfx.platform.impl;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.osgi.framework.Bundle;
 
 import javafx.application.ConditionalFeature;
 import javafx.application.Platform;
@@ -8,6 +10,14 @@ import javafx.beans.property.ReadOnlyBooleanProperty;
 
 public class PlatformWrapper implements net.bbmsoft.iocfx.Platform {
 
+	private final FxDispatcher dispatcher;
+	private final Bundle bundle;
+
+	public PlatformWrapper(FxDispatcher dispatcher, Bundle bundle) {
+		this.dispatcher = dispatcher;
+		this.bundle = bundle;
+	}
+
 	@Override
 	public ReadOnlyBooleanProperty accessibilityActiveProperty() {
 		return Platform.accessibilityActiveProperty();
@@ -40,7 +50,12 @@ public class PlatformWrapper implements net.bbmsoft.iocfx.Platform {
 
 	@Override
 	public void runLater(Runnable runnable) {
-		Platform.runLater(runnable);
+		this.dispatcher.submit(runnable, this.bundle);
+	}
+
+	@Override
+	public void runLaterCoalesced(Object key, Runnable runnable) {
+		this.dispatcher.submitCoalesced(key, runnable, this.bundle);
 	}
 
 	@Override
@@ -56,17 +71,11 @@ public class PlatformWrapper implements net.bbmsoft.iocfx.Platform {
 			return;
 		}
 
-		CountDownLatch latch = new CountDownLatch(1);
-
-		this.runLater(() -> {
-			try {
-				runnable.run();
-			} finally {
-				latch.countDown();
-			}
-		});
-
-		latch.await();
+		try {
+			this.runOnFxThreadAsync(runnable).get();
+		} catch (ExecutionException e) {
+			throw propagate(e.getCause());
+		}
 	}
 
 	@Override
@@ -90,4 +99,16 @@ public class PlatformWrapper implements net.bbmsoft.iocfx.Platform {
 		}
 	}
 
+	private static RuntimeException propagate(Throwable cause) {
+
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+
+		return new IllegalStateException(cause);
+	}
 }
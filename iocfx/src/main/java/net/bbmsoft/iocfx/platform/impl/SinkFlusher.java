@@ -0,0 +1,128 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.animation.AnimationTimer;
+import net.bbmsoft.iocfx.Platform;
+
+/**
+ * Flushes the sinks of the {@link FxDataBridgeImpl} once per pulse. Sinks that
+ * have buffered writes register themselves; an {@link AnimationTimer} then
+ * flushes all of them at the start of the next pulse, so any number of writes
+ * between two frames results in a single update. The timer only runs while
+ * there is something to flush.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class SinkFlusher {
+
+	/**
+	 * A sink with buffered writes.
+	 */
+	interface Sink {
+
+		/**
+		 * Applies the buffered writes. Called on the JavaFX Application Thread.
+		 */
+		void flush();
+	}
+
+	private final Platform platform;
+	private final Queue<Sink> dirty;
+	private final AtomicBoolean armed;
+
+	private volatile boolean closed;
+
+	// only accessed on the JavaFX Application Thread
+	private AnimationTimer timer;
+
+	public SinkFlusher(Platform platform) {
+		this.platform = platform;
+		this.dirty = new ConcurrentLinkedQueue<>();
+		this.armed = new AtomicBoolean();
+	}
+
+	/**
+	 * Flushes a sink during the next pulse. Sinks must make sure not to schedule
+	 * themselves again before they have been flushed.
+	 * 
+	 * @param sink
+	 *            the sink
+	 */
+	public void schedule(Sink sink) {
+
+		this.dirty.add(sink);
+
+		if (!this.closed && this.armed.compareAndSet(false, true)) {
+			// animation timers must be started on the JavaFX Application Thread
+			this.platform.runLater(this::arm);
+		}
+	}
+
+	/**
+	 * Stops flushing sinks.
+	 */
+	public void close() {
+
+		this.closed = true;
+
+		this.platform.runOnFxApplicationThread(() -> {
+			if (this.timer != null) {
+				this.timer.stop();
+			}
+			this.dirty.clear();
+		});
+	}
+
+	private void arm() {
+
+		if (this.closed) {
+			return;
+		}
+
+		if (this.timer == null) {
+			this.timer = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					SinkFlusher.this.pulse();
+				}
+			};
+		}
+
+		this.timer.start();
+	}
+
+	private void pulse() {
+
+		// sinks that still have writes left after this flush schedule themselves for
+		// the next pulse, so only flush the ones that are due now
+		List<Sink> due = new ArrayList<>();
+		for (Sink sink; (sink = this.dirty.poll()) != null;) {
+			due.add(sink);
+		}
+
+		for (Sink sink : due) {
+			try {
+				sink.flush();
+			} catch (Throwable e) {
+				// don't let one failing sink keep the others from being flushed
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}
+
+		if (this.dirty.isEmpty()) {
+			this.timer.stop();
+			this.armed.set(false);
+			// a sink might have been scheduled after the check but before resetting the flag
+			if (!this.dirty.isEmpty() && !this.closed && this.armed.compareAndSet(false, true)) {
+				this.timer.start();
+			}
+		}
+	}
+}
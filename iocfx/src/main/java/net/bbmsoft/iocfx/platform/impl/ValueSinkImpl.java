@@ -0,0 +1,56 @@
+package net.bbmsoft.iocfx.platform.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javafx.beans.value.WritableValue;
+import net.bbmsoft.iocfx.FxDataBridge.ValueSink;
+
+/**
+ * Keeps only the latest value written to the sink. Only the first write after
+ * a flush schedules the sink for the next pulse, later writes just replace the
+ * value that is going to be applied.
+ * 
+ * @author Michael Bachmann
+ *
+ */
+class ValueSinkImpl<T> implements ValueSink<T>, SinkFlusher.Sink {
+
+	// marks that there is no value waiting to be applied, since null is a valid value
+	private static final Object NONE = new Object();
+
+	private final SinkFlusher flusher;
+	private final WritableValue<T> value;
+	private final AtomicReference<Object> latest;
+	private final LongAdder skipped;
+
+	public ValueSinkImpl(SinkFlusher flusher, WritableValue<T> value) {
+		this.flusher = flusher;
+		this.value = value;
+		this.latest = new AtomicReference<>(NONE);
+		this.skipped = new LongAdder();
+	}
+
+	@Override
+	public void set(T value) {
+		if (this.latest.getAndSet(value) == NONE) {
+			this.flusher.schedule(this);
+		} else {
+			this.skipped.increment();
+		}
+	}
+
+	@Override
+	public long getSkipped() {
+		return this.skipped.sum();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void flush() {
+		Object latest = this.latest.getAndSet(NONE);
+		if (latest != NONE) {
+			this.value.setValue((T) latest);
+		}
+	}
+}